@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+# Measures the time from process start to the first successful /health/ready response.
+#
+# Usage: scripts/startup-benchmark.sh [runs] [command...]
+#   runs     number of cold starts to measure (default 5)
+#   command  how to start the app (default: java -jar target/*.jar)
+#
+# Examples:
+#   scripts/startup-benchmark.sh 10
+#   scripts/startup-benchmark.sh 10 docker run --rm --network host stuff-shop
+set -euo pipefail
+
+RUNS="${1:-5}"
+shift || true
+if [ "$#" -eq 0 ]; then
+  set -- java -jar target/*.jar
+fi
+
+URL="${HEALTH_URL:-http://localhost:8080/health/ready}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+results=()
+mkdir -p target
+
+for run in $(seq 1 "$RUNS"); do
+  start=$(date +%s%N)
+  "$@" > "target/startup-run-$run.log" 2>&1 &
+  pid=$!
+
+  elapsed=""
+  deadline=$((start + TIMEOUT_SECONDS * 1000000000))
+  while [ "$(date +%s%N)" -lt "$deadline" ]; do
+    if curl -fs -o /dev/null "$URL"; then
+      elapsed=$((($(date +%s%N) - start) / 1000000))
+      break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+      break
+    fi
+    sleep 0.05
+  done
+
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+
+  if [ -z "$elapsed" ]; then
+    echo "run $run: no successful response from $URL, see target/startup-run-$run.log" >&2
+    exit 1
+  fi
+
+  echo "run $run: ${elapsed} ms"
+  results+=("$elapsed")
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+count=${#sorted[@]}
+echo "min ${sorted[0]} ms, median ${sorted[$((count / 2))]} ms, max ${sorted[$((count - 1))]} ms"
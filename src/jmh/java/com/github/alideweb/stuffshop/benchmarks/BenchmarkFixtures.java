@@ -0,0 +1,148 @@
+package com.github.alideweb.stuffshop.benchmarks;
+
+import com.github.alideweb.stuffshop.common.datasource.ReadYourWrites;
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.filters.JwtFilters;
+import com.github.alideweb.stuffshop.modules.jwt.JwtService;
+import com.github.alideweb.stuffshop.modules.jwt.TokenRevocationRegistry;
+import com.github.alideweb.stuffshop.modules.password.PasswordHashingService;
+import com.github.alideweb.stuffshop.modules.search.SearchIndex;
+import com.github.alideweb.stuffshop.modules.user.UserCache;
+import com.github.alideweb.stuffshop.modules.user.UserDetailsServiceImpl;
+import com.github.alideweb.stuffshop.modules.user.UserExistenceIndex;
+import com.github.alideweb.stuffshop.modules.user.UserInvalidationChannel;
+import com.github.alideweb.stuffshop.modules.user.UserRepository;
+import com.github.alideweb.stuffshop.modules.user.UserService;
+import com.github.alideweb.stuffshop.modules.user.entity.UserEntity;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Random;
+
+final class BenchmarkFixtures {
+    static final String USERNAME = "bench_user";
+    static final String SECRET = "jwt-secret-key-should-be-more-than-32-characters-otherwise-spring-will-throw-error";
+
+    private BenchmarkFixtures() {
+    }
+
+    static UserEntity user() {
+        var user = new UserEntity();
+        user.setId(1L);
+        user.setUsername(USERNAME);
+        user.setEmail("bench@example.com");
+        user.setRole(UserRoles.USER);
+        user.setPassword("$2a$04$abcdefghijklmnopqrstuu8eB6h0r3LvoqNhq2iBhZxpKx6m4nSzy");
+        return user;
+    }
+
+    static PipelineMetrics pipelineMetrics() {
+        return new PipelineMetrics(new SimpleMeterRegistry());
+    }
+
+    static UserRepository userRepository() {
+        UserRepository repository = Mockito.mock(UserRepository.class);
+        Mockito.when(repository.findByUsername(USERNAME)).thenReturn(Optional.of(user()));
+        return repository;
+    }
+
+    static JwtService jwtService(long cacheMaxSize) throws Exception {
+        var jwtService = new JwtService(pipelineMetrics());
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiresAtInHour", 24);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(jwtService, "maxPooledMacs", 64);
+        jwtService.init();
+        return jwtService;
+    }
+
+    static JwtFilters jwtFilters(JwtService jwtService, boolean statelessAuth) {
+        UserRepository repository = userRepository();
+        var revocations = new TokenRevocationRegistry(repository);
+
+        var userCache = new UserCache();
+        ReflectionTestUtils.setField(userCache, "maxSize", 10_000L);
+        ReflectionTestUtils.setField(userCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(userCache, "negativeTtlSeconds", 5L);
+        userCache.init();
+
+        var metrics = pipelineMetrics();
+        var hashing = new PasswordHashingService(new BCryptPasswordEncoder(4), metrics);
+        var existenceIndex = new UserExistenceIndex(null, null);
+        var readYourWrites = new ReadYourWrites();
+        ReflectionTestUtils.setField(readYourWrites, "windowMillis", 5_000L);
+        ReflectionTestUtils.setField(readYourWrites, "maxTrackedWriters", 100_000L);
+        readYourWrites.init();
+
+        var invalidationChannel = new UserInvalidationChannel(null, null, userCache, existenceIndex, revocations, readYourWrites);
+        var userService = new UserService(repository, hashing, userCache, existenceIndex, invalidationChannel, readYourWrites, metrics);
+
+        var filters = new JwtFilters(jwtService, new UserDetailsServiceImpl(userService), revocations);
+        ReflectionTestUtils.setField(filters, "statelessAuth", statelessAuth);
+        return filters;
+    }
+
+    /**
+     * A search index built the way it is on startup, over {@code products} rows with names and descriptions drawn
+     * from {@code vocabulary} with a skewed distribution, so a few terms are very common and most are rare.
+     */
+    static SearchIndex searchIndex(int products, String[] vocabulary) {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            var random = new Random(42);
+            long[] id = {0};
+            ResultSet row = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getLong" -> id[0];
+                        case "getString" -> text(random, vocabulary, (int) args[0] == 2 ? 3 : 12);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+            for (id[0] = 1; id[0] <= products; id[0]++) {
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(ArgumentMatchers.any(PreparedStatementCreator.class), ArgumentMatchers.any(RowCallbackHandler.class));
+
+        var searchIndex = new SearchIndex(jdbcTemplate, Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(searchIndex, "maxSegments", 10);
+        ReflectionTestUtils.setField(searchIndex, "maxPrefixScan", 10_000);
+        searchIndex.build();
+        return searchIndex;
+    }
+
+    static String[] vocabulary(int size) {
+        var random = new Random(7);
+        var words = new LinkedHashSet<String>();
+        while (words.size() < size) {
+            var word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return words.toArray(new String[0]);
+    }
+
+    static String text(Random random, String[] vocabulary, int words) {
+        var text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) text.append(' ');
+            text.append(vocabulary[(int) (vocabulary.length * Math.pow(random.nextDouble(), 3))]);
+        }
+        return text.toString();
+    }
+}
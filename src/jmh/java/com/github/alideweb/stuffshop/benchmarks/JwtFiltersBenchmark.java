@@ -0,0 +1,56 @@
+package com.github.alideweb.stuffshop.benchmarks;
+
+import com.github.alideweb.stuffshop.filters.JwtFilters;
+import com.github.alideweb.stuffshop.modules.jwt.JwtService;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFiltersBenchmark {
+    @Param({"false", "true"})
+    public boolean statelessAuth;
+
+    private JwtFilters jwtFilters;
+    private String authorization;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtService jwtService = BenchmarkFixtures.jwtService(100_000);
+        jwtFilters = BenchmarkFixtures.jwtFilters(jwtService, statelessAuth);
+        authorization = "Bearer " + jwtService.generateJwtToken(BenchmarkFixtures.USERNAME, UserRoles.USER);
+    }
+
+    @Benchmark
+    public Object validToken() throws Exception {
+        return filter(authorization);
+    }
+
+    @Benchmark
+    public Object invalidToken() throws Exception {
+        return filter("Bearer not.a.token");
+    }
+
+    private Object filter(String header) throws Exception {
+        var request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader("Authorization", header);
+        var response = new MockHttpServletResponse();
+
+        try {
+            jwtFilters.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
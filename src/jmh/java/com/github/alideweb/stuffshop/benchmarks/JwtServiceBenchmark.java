@@ -0,0 +1,69 @@
+package com.github.alideweb.stuffshop.benchmarks;
+
+import com.github.alideweb.stuffshop.modules.jwt.JwtService;
+import com.github.alideweb.stuffshop.modules.user.CustomUserDetails;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private JwtService cachingJwtService;
+    private JwtService uncachedJwtService;
+    private CustomUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        cachingJwtService = BenchmarkFixtures.jwtService(100_000);
+        uncachedJwtService = BenchmarkFixtures.jwtService(0);
+        userDetails = new CustomUserDetails(BenchmarkFixtures.user());
+        token = cachingJwtService.generateJwtToken(BenchmarkFixtures.USERNAME, UserRoles.USER);
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return cachingJwtService.generateJwtToken(BenchmarkFixtures.USERNAME, UserRoles.USER);
+    }
+
+    /**
+     * The generic JJWT builder path that {@code generateJwtToken} used before the dedicated issuer, kept as a baseline.
+     */
+    @Benchmark
+    public String generateJwtTokenWithJjwtBuilder() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("username", BenchmarkFixtures.USERNAME);
+        claims.put("role", UserRoles.USER);
+
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(BenchmarkFixtures.USERNAME)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 24L * 60 * 60 * 1000))
+                .signWith(new SecretKeySpec(BenchmarkFixtures.SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public boolean isJwtTokenValidCached() {
+        return cachingJwtService.isJwtTokenValid(token, userDetails);
+    }
+
+    @Benchmark
+    public boolean isJwtTokenValidUncached() {
+        return uncachedJwtService.isJwtTokenValid(token, userDetails);
+    }
+}
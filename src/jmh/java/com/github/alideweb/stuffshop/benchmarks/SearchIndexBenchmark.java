@@ -0,0 +1,74 @@
+package com.github.alideweb.stuffshop.benchmarks;
+
+import com.github.alideweb.stuffshop.modules.search.SearchHit;
+import com.github.alideweb.stuffshop.modules.search.SearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency over a catalog of {@code products} items. With {@code updatedProducts > 0} that many products are
+ * re-indexed after the build, so queries also pay for the tombstones left in the base segment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchIndexBenchmark {
+    @Param("1000000")
+    private int products;
+
+    @Param({"0", "10000"})
+    private int updatedProducts;
+
+    private SearchIndex searchIndex;
+    private String commonQuery;
+    private String rareQuery;
+    private String mixedQuery;
+    private String suggestPrefix;
+
+    @Setup
+    public void setUp() {
+        String[] vocabulary = BenchmarkFixtures.vocabulary(50_000);
+        searchIndex = BenchmarkFixtures.searchIndex(products, vocabulary);
+
+        var random = new Random(11);
+        for (int i = 0; i < updatedProducts; i++) {
+            searchIndex.index(1 + random.nextInt(products), BenchmarkFixtures.text(random, vocabulary, 3),
+                    BenchmarkFixtures.text(random, vocabulary, 12));
+        }
+
+        commonQuery = vocabulary[0] + " " + vocabulary[1];
+        rareQuery = vocabulary[vocabulary.length / 2] + " " + vocabulary[vocabulary.length / 3];
+        mixedQuery = vocabulary[0] + " " + vocabulary[vocabulary.length / 2];
+        suggestPrefix = vocabulary[0].substring(0, 2);
+
+        if (searchIndex.search(commonQuery, 1).isEmpty()) {
+            throw new IllegalStateException("Search index was not built");
+        }
+    }
+
+    @Benchmark
+    public List<SearchHit> searchCommonTerms() {
+        return searchIndex.search(commonQuery, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> searchRareTerms() {
+        return searchIndex.search(rareQuery, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> searchCommonAndRareTerm() {
+        return searchIndex.search(mixedQuery, 20);
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return searchIndex.suggest(suggestPrefix, 10);
+    }
+}
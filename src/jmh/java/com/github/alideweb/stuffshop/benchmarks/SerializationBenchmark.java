@@ -0,0 +1,164 @@
+package com.github.alideweb.stuffshop.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.common.json.ApiResponseHttpMessageConverter;
+import com.github.alideweb.stuffshop.exceptions.ErrorResponseRenderer;
+import com.github.alideweb.stuffshop.modules.auth.dto.UserResponseDto;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductPageDto;
+import com.github.alideweb.stuffshop.modules.user.CustomUserDetails;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private CustomUserDetails userDetails;
+    private ApiResponse<UserResponseDto> apiResponse;
+    private ApiResponse<ProductPageDto> productPage;
+    private MappingJackson2HttpMessageConverter jacksonConverter;
+    private ApiResponseHttpMessageConverter apiResponseConverter;
+    private ReusableOutputMessage output;
+    private ErrorResponseRenderer.ErrorTemplate unauthorized;
+    private ErrorResponseRenderer.ErrorTemplate validationFailed;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        userDetails = new CustomUserDetails(BenchmarkFixtures.user());
+
+        var token = BenchmarkFixtures.jwtService(0).generateJwtToken(BenchmarkFixtures.USERNAME, UserRoles.USER);
+        apiResponse = ApiResponse.<UserResponseDto>builder()
+                .message("you signed up successfully")
+                .status(HttpStatus.CREATED.value())
+                .data(UserResponseDto.builder()
+                        .username(BenchmarkFixtures.USERNAME)
+                        .email("bench@example.com")
+                        .role(UserRoles.USER)
+                        .token(token)
+                        .build())
+                .build();
+
+        List<ProductDto> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            products.add(new ProductDto(i, "Product " + i, "A fairly ordinary description of product " + i, "category-" + i % 10,
+                    new BigDecimal(i + ".99")));
+        }
+        productPage = ApiResponse.<ProductPageDto>builder()
+                .message("products fetched successfully")
+                .status(HttpStatus.OK.value())
+                .data(new ProductPageDto(products, "MTAw"))
+                .build();
+
+        jacksonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        apiResponseConverter = new ApiResponseHttpMessageConverter(objectMapper);
+        output = new ReusableOutputMessage();
+
+        var errorRenderer = new ErrorResponseRenderer();
+        unauthorized = errorRenderer.template("ERR_UNAUTHORIZED");
+        validationFailed = errorRenderer.template("ERR_VALIDATION_FAILED");
+    }
+
+    @Benchmark
+    public Object getAuthorities() {
+        return userDetails.getAuthorities();
+    }
+
+    @Benchmark
+    public byte[] apiResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(apiResponse);
+    }
+
+    @Benchmark
+    public int apiResponseJacksonConverter() throws Exception {
+        jacksonConverter.write(apiResponse, MediaType.APPLICATION_JSON, output.reset());
+        return output.body.size();
+    }
+
+    @Benchmark
+    public int apiResponseStreamingConverter() throws Exception {
+        apiResponseConverter.write(apiResponse, MediaType.APPLICATION_JSON, output.reset());
+        return output.body.size();
+    }
+
+    @Benchmark
+    public int productPageJacksonConverter() throws Exception {
+        jacksonConverter.write(productPage, MediaType.APPLICATION_JSON, output.reset());
+        return output.body.size();
+    }
+
+    @Benchmark
+    public int productPageStreamingConverter() throws Exception {
+        apiResponseConverter.write(productPage, MediaType.APPLICATION_JSON, output.reset());
+        return output.body.size();
+    }
+
+    @Benchmark
+    public byte[] unauthorizedErrorRenderer() {
+        return unauthorized.render(null, "/products");
+    }
+
+    @Benchmark
+    public byte[] validationFailedErrorRenderer() {
+        return validationFailed.render("price: must be greater than 0; name: must not be blank", "/products");
+    }
+
+    /**
+     * Baseline for the renderer: the ProblemDetail and ObjectMapper path error responses took before.
+     */
+    @Benchmark
+    public byte[] unauthorizedProblemDetailBaseline() throws Exception {
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.UNAUTHORIZED);
+        pd.setTitle("Unauthorized");
+        pd.setDetail("Authentication is required to access this resource");
+        pd.setInstance(URI.create("/products"));
+        pd.setProperty("code", "ERR_UNAUTHORIZED");
+
+        return objectMapper.writeValueAsBytes(pd);
+    }
+
+    /**
+     * Keeps the body buffer across invocations so only the converters' own allocations are measured.
+     */
+    private static final class ReusableOutputMessage implements HttpOutputMessage {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(64 * 1024);
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private ReusableOutputMessage reset() {
+            body.reset();
+            headers.clear();
+            return this;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -2,10 +2,14 @@ package com.github.alideweb.stuffshop;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableJpaAuditing
+@EnableScheduling
 public class StuffShopApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,73 @@
+package com.github.alideweb.stuffshop.common.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which users wrote recently so their reads stay on the primary until replicas have had time to catch up.
+ * Writes are attributed to the authenticated user, or recorded explicitly for changes made on someone's behalf.
+ */
+@Component
+public class ReadYourWrites {
+    private final ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+
+    @Value("${datasource.replicas.readYourWritesMillis:5000}")
+    private long windowMillis;
+
+    @Value("${datasource.replicas.maxTrackedWriters:100000}")
+    private long maxTrackedWriters;
+
+    private Cache<String, Boolean> recentWriters;
+
+    @PostConstruct
+    public void init() {
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedWriters)
+                .expireAfterWrite(Duration.ofMillis(windowMillis))
+                .build();
+    }
+
+    public void recordWrite(String username) {
+        if (username != null) recentWriters.put(username, Boolean.TRUE);
+    }
+
+    public void recordWrite() {
+        recordWrite(currentUsername());
+    }
+
+    public boolean wroteRecently(String username) {
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+
+    public boolean requiresPrimary() {
+        return Boolean.TRUE.equals(primaryRequired.get()) || wroteRecently(currentUsername());
+    }
+
+    public <T> T readAs(String username, Supplier<T> read) {
+        if (!wroteRecently(username) || Boolean.TRUE.equals(primaryRequired.get())) return read.get();
+
+        primaryRequired.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            primaryRequired.remove();
+        }
+    }
+
+    private static String currentUsername() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.alideweb.stuffshop.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-only target behind the lazy connection proxy. Picks the usable replica with the fewest active connections,
+ * starting the scan at a rotating offset so idle replicas are used round-robin. A replica is usable while its last
+ * lag check succeeded within {@code maxLagMillis}. Reads fall back to the primary when no replica is usable or the
+ * current user wrote recently.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, Closeable {
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReadYourWrites readYourWrites,
+                                    long maxLagMillis, String lagQuery) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWrites = readYourWrites;
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        var replica = choose();
+        if (replica == null) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+
+        replica.reads.increment();
+        return replica.pool.getConnection();
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lagCheckMillis:500}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean wasUsable = replica.usable;
+
+            try (var connection = replica.pool.getConnection();
+                 var statement = connection.createStatement();
+                 var rs = statement.executeQuery(lagQuery)) {
+                double lag = rs.next() ? rs.getDouble(1) : 0;
+                replica.lagMillis = lag;
+                replica.usable = lag <= maxLagMillis;
+            } catch (SQLException e) {
+                replica.lagMillis = Double.NaN;
+                replica.usable = false;
+                if (wasUsable) log.warn("Replica {} failed its lag check: {}", replica.name, e.getMessage());
+            }
+
+            if (wasUsable != replica.usable) {
+                log.info("Replica {} is now {} (lag {} ms)", replica.name, replica.usable ? "in rotation" : "out of rotation", replica.lagMillis);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("datasource.reads", primaryReads, LongAdder::sum)
+                .tag("target", "primary")
+                .description("Read-only connections handed out, by target")
+                .register(registry);
+
+        for (Replica replica : replicas) {
+            FunctionCounter.builder("datasource.reads", replica.reads, LongAdder::sum)
+                    .tag("target", replica.name)
+                    .description("Read-only connections handed out, by target")
+                    .register(registry);
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMillis)
+                    .tag("replica", replica.name)
+                    .baseUnit("milliseconds")
+                    .description("Replication lag seen by the last check")
+                    .register(registry);
+            Gauge.builder("datasource.replica.usable", replica, r -> r.usable ? 1 : 0)
+                    .tag("replica", replica.name)
+                    .description("Whether the replica currently serves reads")
+                    .register(registry);
+        }
+    }
+
+    private Replica choose() {
+        if (replicas.isEmpty() || readYourWrites.requiresPrimary()) return null;
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+
+        for (int i = 0; i < replicas.size(); i++) {
+            var replica = replicas.get((start + i) % replicas.size());
+            if (!replica.usable) continue;
+
+            int active = replica.activeConnections();
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+
+        return best;
+    }
+
+    public static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private final LongAdder reads = new LongAdder();
+        private volatile boolean usable;
+        private volatile double lagMillis = Double.NaN;
+
+        public Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        private int activeConnections() {
+            var pool = this.pool.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.alideweb.stuffshop.common.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Primary target behind the lazy connection proxy. A physical primary connection is only fetched once a read-write
+ * transaction actually runs a statement, so that is where the current user is marked as a recent writer.
+ */
+public class WriteTrackingDataSource extends DelegatingDataSource {
+    private final ReadYourWrites readYourWrites;
+
+    public WriteTrackingDataSource(DataSource primary, ReadYourWrites readYourWrites) {
+        super(primary);
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        readYourWrites.recordWrite();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        readYourWrites.recordWrite();
+        return super.getConnection(username, password);
+    }
+}
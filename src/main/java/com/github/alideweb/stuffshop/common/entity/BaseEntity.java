@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 @Setter
 public abstract class BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entity_id_seq")
+    @SequenceGenerator(name = "entity_id_seq", sequenceName = "entity_id_seq", allocationSize = 50)
     private Long id;
 
     @CreatedDate
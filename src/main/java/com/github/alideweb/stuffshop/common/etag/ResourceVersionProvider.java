@@ -0,0 +1,25 @@
+package com.github.alideweb.stuffshop.common.etag;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+
+/**
+ * Tells {@link com.github.alideweb.stuffshop.filters.ConditionalGetFilter} which version of a resource a GET would
+ * return, without doing the work of building it. The version must change whenever the response could change and must
+ * be read before the response is built.
+ */
+public interface ResourceVersionProvider {
+    /**
+     * Version of the resource behind the request, or {@code null} when this provider does not cover it.
+     */
+    String version(HttpServletRequest request);
+
+    CacheControl cacheControl();
+
+    /**
+     * Whether the response depends on the authenticated user, in which case ETags are cached per user.
+     */
+    default boolean isPerUser() {
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.alideweb.stuffshop.common.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Writes the {@link ApiResponse} envelope straight to the response stream with pre-encoded field names. {@code data}
+ * that is {@link JsonWritable}, or a collection of it, is streamed element by element on the same generator; anything
+ * else falls back to the application {@code ObjectMapper}. The generator borrows its byte buffer from Jackson's
+ * buffer recycler, so a response allocates neither a body-sized array nor a serializer chain for the envelope.
+ */
+public class ApiResponseHttpMessageConverter extends AbstractHttpMessageConverter<ApiResponse<?>> {
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString DATA = new SerializedString("data");
+    private static final SerializedString STATUS = new SerializedString("status");
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter fallbackWriter;
+
+    public ApiResponseHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+        this.fallbackWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ApiResponse<?> readInternal(@NonNull Class<? extends ApiResponse<?>> clazz, @NonNull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ApiResponse is write only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(@NonNull ApiResponse<?> response, @NonNull HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            write(response, generator);
+        }
+    }
+
+    public void write(ApiResponse<?> response, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.string(generator, MESSAGE, response.getMessage());
+        generator.writeFieldName(DATA);
+        writeData(response.getData(), generator);
+        generator.writeFieldName(STATUS);
+        generator.writeNumber(response.getStatus());
+        generator.writeEndObject();
+    }
+
+    private void writeData(Object data, JsonGenerator generator) throws IOException {
+        if (data == null) {
+            generator.writeNull();
+        } else if (data instanceof JsonWritable writable) {
+            writable.writeJson(generator);
+        } else if (data instanceof Collection<?> values) {
+            generator.writeStartArray(values, values.size());
+            for (Object value : values) {
+                if (value instanceof String string) generator.writeString(string);
+                else writeData(value, generator);
+            }
+            generator.writeEndArray();
+        } else {
+            fallbackWriter.writeValue(generator, data);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.alideweb.stuffshop.common.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public final class JsonFields {
+    private JsonFields() {
+    }
+
+    public static void string(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) generator.writeNull();
+        else generator.writeString(value);
+    }
+
+    public static void string(JsonGenerator generator, SerializableString name, Enum<?> value) throws IOException {
+        string(generator, name, value == null ? null : value.name());
+    }
+
+    public static void instant(JsonGenerator generator, SerializableString name, Instant value) throws IOException {
+        string(generator, name, value == null ? null : value.toString());
+    }
+
+    public static void number(JsonGenerator generator, SerializableString name, long value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeNumber(value);
+    }
+
+    public static void number(JsonGenerator generator, SerializableString name, BigDecimal value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) generator.writeNull();
+        else generator.writeNumber(value);
+    }
+
+    public static void array(JsonGenerator generator, SerializableString name, List<? extends JsonWritable> values) throws IOException {
+        generator.writeFieldName(name);
+        if (values == null) {
+            generator.writeNull();
+            return;
+        }
+
+        generator.writeStartArray(values, values.size());
+        for (JsonWritable value : values) value.writeJson(generator);
+        generator.writeEndArray();
+    }
+}
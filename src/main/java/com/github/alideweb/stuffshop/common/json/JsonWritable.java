@@ -0,0 +1,13 @@
+package com.github.alideweb.stuffshop.common.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * A response DTO that writes itself with pre-encoded field names instead of going through Jackson bean
+ * introspection. The output must match what the application {@code ObjectMapper} would produce for the same value.
+ */
+public interface JsonWritable {
+    void writeJson(JsonGenerator generator) throws IOException;
+}
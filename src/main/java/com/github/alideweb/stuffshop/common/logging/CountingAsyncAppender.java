@@ -0,0 +1,25 @@
+package com.github.alideweb.stuffshop.common.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class CountingAsyncAppender extends AsyncAppender {
+    private static final LongAdder DROPPED_EVENTS = new LongAdder();
+
+    public static LongAdder droppedEvents() {
+        return DROPPED_EVENTS;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+
+        if ((remaining < getDiscardingThreshold() && isDiscardable(event)) || (remaining == 0 && isNeverBlock())) {
+            DROPPED_EVENTS.increment();
+        }
+
+        super.append(event);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.alideweb.stuffshop.common.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class ExceptionLogSampler implements MeterBinder {
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+
+    @Value("${logging.exceptions.windowSeconds:10}")
+    private long windowSeconds;
+
+    @Value("${logging.exceptions.maxPerWindow:5}")
+    private int maxPerWindow;
+
+    public void log(Logger logger, HttpStatusCode status, String code, Throwable ex, String format, Object... args) {
+        var window = windows.computeIfAbsent(key(status, code, ex), key -> new Window());
+        long suppressedBefore = window.acquire(System.nanoTime(), TimeUnit.SECONDS.toNanos(windowSeconds), maxPerWindow);
+
+        if (suppressedBefore < 0) {
+            suppressed.increment();
+            return;
+        }
+
+        if (suppressedBefore > 0) {
+            logger.warn("Suppressed {} similar {} errors ({}) in the last {}s", suppressedBefore, code,
+                    ex == null ? "no exception" : ex.getClass().getSimpleName(), windowSeconds);
+        }
+
+        if (status.is5xxServerError()) {
+            Object[] withThrowable = Arrays.copyOf(args, args.length + 1);
+            withThrowable[args.length] = ex;
+            logger.error(format, withThrowable);
+        } else {
+            logger.warn(format, args);
+        }
+    }
+
+    /**
+     * One window per kind of failure: the same error code thrown from a different place, or as a different exception,
+     * is logged on its own rather than hidden behind an unrelated flood.
+     */
+    private static String key(HttpStatusCode status, String code, Throwable ex) {
+        var key = new StringBuilder().append(status.value()).append(':').append(code);
+        if (ex != null) {
+            key.append(':').append(ex.getClass().getName());
+            StackTraceElement[] frames = ex.getStackTrace();
+            if (frames.length > 0) key.append('@').append(frames[0]);
+        }
+        return key.toString();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("logging.exceptions.suppressed", suppressed, LongAdder::sum)
+                .description("Exception log lines dropped by rate limiting")
+                .register(registry);
+        FunctionCounter.builder("logging.events.dropped", CountingAsyncAppender.droppedEvents(), LongAdder::sum)
+                .description("Log events discarded by the asynchronous appender")
+                .register(registry);
+    }
+
+    private static class Window {
+        private final AtomicLong startedAt = new AtomicLong(System.nanoTime());
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        long acquire(long now, long windowNanos, int maxPerWindow) {
+            long start = startedAt.get();
+            if (now - start >= windowNanos && startedAt.compareAndSet(start, now)) {
+                count.set(0);
+                long previouslySuppressed = suppressed.getAndSet(0);
+                count.incrementAndGet();
+                return previouslySuppressed;
+            }
+
+            if (count.incrementAndGet() <= maxPerWindow) {
+                return 0;
+            }
+
+            suppressed.incrementAndGet();
+            return -1;
+        }
+    }
+}
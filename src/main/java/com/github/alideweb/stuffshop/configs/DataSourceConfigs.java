@@ -0,0 +1,70 @@
+package com.github.alideweb.stuffshop.configs;
+
+import com.github.alideweb.stuffshop.common.datasource.ReadYourWrites;
+import com.github.alideweb.stuffshop.common.datasource.ReplicaRoutingDataSource;
+import com.github.alideweb.stuffshop.common.datasource.WriteTrackingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured datasource. Connections are handed out lazily, so by the time a statement runs the
+ * transaction's read-only flag is known: read-only transactions, which includes Spring Data query methods called
+ * outside a transaction, go to the replicas and everything else to the primary. The beans exist whether or not
+ * replicas are enabled, because AOT-processed images fix the bean graph at build time; without replica nodes every
+ * connection comes from the primary.
+ */
+@Configuration
+public class DataSourceConfigs {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(ReplicaProperties replicas,
+                                                      DataSourceProperties primaryProperties,
+                                                      @Qualifier("primaryDataSource") HikariDataSource primary,
+                                                      ReadYourWrites readYourWrites) {
+        List<ReplicaProperties.Node> configured = replicas.isEnabled() ? replicas.getNodes() : List.of();
+        var nodes = configured.stream()
+                .map(node -> new ReplicaRoutingDataSource.Replica(node.getName(), pool(node, primaryProperties, replicas)))
+                .toList();
+
+        var router = new ReplicaRoutingDataSource(primary, nodes, readYourWrites, replicas.getMaxLagMillis(), replicas.getLagQuery());
+        router.checkLag();
+        return router;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 ReplicaRoutingDataSource replicaDataSource,
+                                 ReadYourWrites readYourWrites) {
+        if (!replicaDataSource.hasReplicas()) return new LazyConnectionDataSourceProxy(primary);
+
+        var dataSource = new LazyConnectionDataSourceProxy(new WriteTrackingDataSource(primary, readYourWrites));
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    private static HikariDataSource pool(ReplicaProperties.Node node, DataSourceProperties primary, ReplicaProperties replicas) {
+        var pool = new HikariDataSource();
+        pool.setPoolName("replica-" + node.getName());
+        pool.setJdbcUrl(node.getUrl());
+        pool.setUsername(node.getUsername() != null ? node.getUsername() : primary.determineUsername());
+        pool.setPassword(node.getPassword() != null ? node.getPassword() : primary.determinePassword());
+        pool.setMaximumPoolSize(replicas.getMaximumPoolSize());
+        pool.setReadOnly(true);
+        return pool;
+    }
+}
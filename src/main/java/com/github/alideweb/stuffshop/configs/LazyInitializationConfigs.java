@@ -0,0 +1,69 @@
+package com.github.alideweb.stuffshop.configs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+
+import java.util.Arrays;
+
+@Configuration
+public class LazyInitializationConfigs {
+    @Bean
+    public static LazyPackagesPostProcessor lazyPackagesPostProcessor() {
+        return new LazyPackagesPostProcessor();
+    }
+
+    /**
+     * Marks every bean that lives in one of the {@code startup.lazyPackages} prefixes as lazy, so
+     * rarely used infrastructure such as springdoc is only built on first use instead of at boot.
+     */
+    @Slf4j
+    public static class LazyPackagesPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+        private String[] packages = new String[0];
+
+        @Override
+        public void setEnvironment(@NonNull Environment environment) {
+            packages = environment.getProperty("startup.lazyPackages", String[].class, new String[0]);
+        }
+
+        @Override
+        public void postProcessBeanFactory(@NonNull ConfigurableListableBeanFactory beanFactory) {
+            if (packages.length == 0) return;
+
+            int count = 0;
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                var definition = beanFactory.getBeanDefinition(name);
+                if (definition.isLazyInit() || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) continue;
+
+                if (matches(definition.getBeanClassName()) || matches(factoryClassName(beanFactory, definition))) {
+                    definition.setLazyInit(true);
+                    count++;
+                }
+            }
+
+            log.info("Deferred initialization of {} beans in {}", count, Arrays.toString(packages));
+        }
+
+        private String factoryClassName(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+            String factoryBean = definition.getFactoryBeanName();
+            if (factoryBean == null || !beanFactory.containsBeanDefinition(factoryBean)) return null;
+
+            return beanFactory.getBeanDefinition(factoryBean).getBeanClassName();
+        }
+
+        private boolean matches(String className) {
+            if (className == null) return false;
+
+            for (String prefix : packages) {
+                if (className.startsWith(prefix)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.github.alideweb.stuffshop.configs;
 
+import com.github.alideweb.stuffshop.common.etag.ResourceVersionProvider;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.info.Info;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 
 @Configuration
 @OpenAPIDefinition(
@@ -18,4 +23,18 @@ import org.springframework.context.annotation.Configuration;
         )
 )
 public class OpenAPIConfigs {
+    @Bean
+    public ResourceVersionProvider openApiVersionProvider(@Value("${springdoc.api-docs.path:/v3/api-docs}") String apiDocsPath) {
+        return new ResourceVersionProvider() {
+            @Override
+            public String version(HttpServletRequest request) {
+                return request.getRequestURI().startsWith(apiDocsPath) ? "openapi" : null;
+            }
+
+            @Override
+            public CacheControl cacheControl() {
+                return CacheControl.noCache().cachePublic();
+            }
+        };
+    }
 }
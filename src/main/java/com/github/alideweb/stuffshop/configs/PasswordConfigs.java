@@ -1,14 +1,46 @@
 package com.github.alideweb.stuffshop.configs;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
+@Slf4j
 public class PasswordConfigs {
+    @Value("${password.hashing.targetMillis:250}")
+    private long targetMillis;
+
+    @Value("${password.hashing.minStrength:10}")
+    private int minStrength;
+
+    @Value("${password.hashing.maxStrength:14}")
+    private int maxStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = calibrateStrength();
+        log.info("Using BCrypt strength {} for a {} ms hashing budget", strength, targetMillis);
+
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    private int calibrateStrength() {
+        var probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration-warmup");
+
+        long start = System.nanoTime();
+        probe.encode("calibration-probe");
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        int strength = minStrength;
+        while (strength < maxStrength && elapsedMillis * 2 <= targetMillis) {
+            elapsedMillis *= 2;
+            strength++;
+        }
+
+        return strength;
     }
 }
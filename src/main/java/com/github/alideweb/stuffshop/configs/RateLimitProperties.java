@@ -0,0 +1,26 @@
+package com.github.alideweb.stuffshop.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private int stripes = 16;
+    private int maxKeysPerStripe = 4096;
+    private long idleSeconds = 300;
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        private String path;
+        private int capacity = 10;
+        private double refillPerMinute = 10;
+        private int usernameCapacity = 5;
+        private double usernameRefillPerMinute = 5;
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.alideweb.stuffshop.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaProperties {
+    private boolean enabled = false;
+    private long maxLagMillis = 1000;
+    private int maximumPoolSize = 10;
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000 end";
+    private List<Node> nodes = new ArrayList<>();
+
+    @Data
+    public static class Node {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -2,9 +2,13 @@ package com.github.alideweb.stuffshop.configs;
 
 import com.github.alideweb.stuffshop.exceptions.SecurityExceptionHandlers;
 import com.github.alideweb.stuffshop.filters.JwtFilters;
+import com.github.alideweb.stuffshop.filters.RateLimitFilter;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -19,6 +23,10 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfigs {
     private final JwtFilters jwtFilter;
+    private final RateLimitFilter rateLimitFilter;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, SecurityExceptionHandlers securityExceptionHandlers) throws Exception {
@@ -36,15 +44,29 @@ public class SecurityConfigs {
                                 "/auth/**",
                                 "/health/**"
                         ).permitAll()
+                        .requestMatchers(HttpMethod.GET, "/products/**").permitAll()
+                        .requestMatchers(this::isScrape).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
+    /**
+     * The management port is internal, so the metrics scraper reaches it without credentials; the public port never
+     * matches.
+     */
+    private boolean isScrape(HttpServletRequest request) {
+        return managementPort > 0 && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getServletPath());
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
@@ -0,0 +1,21 @@
+package com.github.alideweb.stuffshop.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alideweb.stuffshop.common.json.ApiResponseHttpMessageConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfigs implements WebMvcConfigurer {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new ApiResponseHttpMessageConverter(objectMapper));
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class CartFullException extends BaseHttpException {
+    public CartFullException(int maxItems) {
+        super(HttpStatus.CONFLICT, "ERR_CART_FULL", "a cart can hold at most " + maxItems + " different products");
+    }
+}
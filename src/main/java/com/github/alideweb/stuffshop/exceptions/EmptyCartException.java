@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class EmptyCartException extends BaseHttpException {
+    public EmptyCartException() {
+        super(HttpStatus.BAD_REQUEST, "ERR_CART_EMPTY", "cart is empty");
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class ErrorResponseRenderer implements MeterBinder {
+    public static final String ERRORS_METRIC = "stuffshop.errors";
+
+    private static final byte[] DETAIL_OPEN = ascii(",\"detail\":\"");
+    private static final byte[] INSTANCE_OPEN = ascii(",\"instance\":\"");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+    private static final int[] ESCAPES = new int[128];
+
+    static {
+        for (int c = 0; c < 32; c++) ESCAPES[c] = -1;
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+    }
+
+    private final Map<String, ErrorTemplate> templates = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public ErrorResponseRenderer() {
+        register(HttpStatus.UNAUTHORIZED, "Unauthorized", "Authentication is required to access this resource", "ERR_UNAUTHORIZED");
+        register(HttpStatus.FORBIDDEN, "Forbidden", "You do not have permission to access this resource", "ERR_FORBIDDEN");
+        register(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", "Too many requests, please retry later", "ERR_RATE_LIMITED");
+        register(HttpStatus.BAD_REQUEST, "Malformed JSON request", "Could not parse JSON body", "ERR_INVALID_JSON");
+        register(HttpStatus.BAD_REQUEST, "File upload error", "An error occurred while processing the file upload", "ERR_FILE_UPLOAD");
+        register(HttpStatus.BAD_REQUEST, "Validation Failed", null, "ERR_VALIDATION_FAILED");
+        register(HttpStatus.BAD_REQUEST, "Missing request parameter", null, "ERR_MISSING_PARAMETER");
+        register(HttpStatus.BAD_REQUEST, "Constraint Violation", null, "ERR_CONSTRAINT_VIOLATION");
+        register(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error", null, "ERR_INTERNAL");
+    }
+
+    public ErrorTemplate template(String code) {
+        var template = templates.get(code);
+        if (template == null) throw new IllegalArgumentException("No error template registered for " + code);
+
+        return template;
+    }
+
+    public ErrorTemplate template(BaseHttpException ex) {
+        return templates.computeIfAbsent(ex.getStatus().value() + ":" + ex.getErrorCode(), key -> {
+            var template = new ErrorTemplate(ex.getStatus(), "Error: " + ex.getErrorCode(), null, ex.getErrorCode());
+            if (registry != null) bind(template, registry);
+            return template;
+        });
+    }
+
+    public ResponseEntity<byte[]> toResponse(ErrorTemplate template, String detail, HttpServletRequest request) {
+        return ResponseEntity.status(template.getStatus())
+                .contentType(contentType(request.getHeader(HttpHeaders.ACCEPT)))
+                .body(template.render(detail, request.getRequestURI()));
+    }
+
+    /**
+     * Negotiates like Spring does for a ProblemDetail body: application/json if the client prefers it to
+     * application/problem+json, which is the answer for anything else.
+     */
+    static MediaType contentType(String accept) {
+        if (accept == null || accept.isEmpty()) return MediaType.APPLICATION_PROBLEM_JSON;
+
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_PROBLEM_JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) break;
+            if (type.isCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON)) return MediaType.APPLICATION_PROBLEM_JSON;
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) return MediaType.APPLICATION_JSON;
+        }
+        return MediaType.APPLICATION_PROBLEM_JSON;
+    }
+
+    public void write(ErrorTemplate template, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(template.getStatus().value());
+        response.setContentType("application/json");
+        template.write(response, null, request.getRequestURI());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+        templates.values().forEach(template -> bind(template, registry));
+    }
+
+    private void register(HttpStatusCode status, String title, String detail, String code) {
+        templates.put(code, new ErrorTemplate(status, title, detail, code));
+    }
+
+    private static void bind(ErrorTemplate template, MeterRegistry registry) {
+        FunctionCounter.builder(ERRORS_METRIC, template.rendered, LongAdder::sum)
+                .tag("code", template.code)
+                .tag("status", String.valueOf(template.status.value()))
+                .description("Error responses rendered, by error code")
+                .register(registry);
+    }
+
+    public static final class ErrorTemplate {
+        private final HttpStatusCode status;
+        private final String code;
+        private final LongAdder rendered = new LongAdder();
+        private final byte[] head;
+        private final byte[] staticDetail;
+        private final byte[] tail;
+
+        ErrorTemplate(HttpStatusCode status, String title, String detail, String code) {
+            this.status = status;
+            this.code = code;
+            this.head = encode("{\"type\":\"about:blank\",\"title\":\"", title, "\",\"status\":" + status.value());
+            this.staticDetail = detail == null ? null : encode(",\"detail\":\"", detail, "\"");
+            this.tail = encode(",\"code\":\"", code, "\"}");
+        }
+
+        public HttpStatusCode getStatus() {
+            return status;
+        }
+
+        public byte[] render(String detail, String instance) {
+            rendered.increment();
+            byte[] buffer = new byte[capacity(detail, instance)];
+            return Arrays.copyOf(buffer, fill(buffer, detail, instance));
+        }
+
+        public void write(HttpServletResponse response, String detail, String instance) throws IOException {
+            rendered.increment();
+            byte[] buffer = new byte[capacity(detail, instance)];
+            int length = fill(buffer, detail, instance);
+
+            response.setContentLength(length);
+            response.getOutputStream().write(buffer, 0, length);
+        }
+
+        private int capacity(String detail, String instance) {
+            int dynamicDetail = staticDetail == null && detail != null ? DETAIL_OPEN.length + detail.length() * 6 + 1 : 0;
+            int staticLength = staticDetail == null ? 0 : staticDetail.length;
+
+            return head.length + staticLength + dynamicDetail + INSTANCE_OPEN.length + instance.length() * 6 + 1 + tail.length;
+        }
+
+        private int fill(byte[] buffer, String detail, String instance) {
+            int pos = copy(head, buffer, 0);
+
+            if (staticDetail != null) {
+                pos = copy(staticDetail, buffer, pos);
+            } else if (detail != null && !detail.isEmpty()) {
+                pos = copy(DETAIL_OPEN, buffer, pos);
+                pos = escape(detail, buffer, pos);
+                buffer[pos++] = '"';
+            }
+
+            pos = copy(INSTANCE_OPEN, buffer, pos);
+            pos = escape(instance, buffer, pos);
+            buffer[pos++] = '"';
+
+            return copy(tail, buffer, pos);
+        }
+
+        private static byte[] encode(String prefix, String value, String suffix) {
+            byte[] buffer = new byte[prefix.length() + value.length() * 6 + suffix.length()];
+            int pos = copy(ascii(prefix), buffer, 0);
+            pos = escape(value, buffer, pos);
+            pos = copy(ascii(suffix), buffer, pos);
+
+            return Arrays.copyOf(buffer, pos);
+        }
+    }
+
+    private static int copy(byte[] source, byte[] target, int pos) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+
+    private static int escape(String value, byte[] buffer, int pos) {
+        int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            if (c < 0x80) {
+                int escape = ESCAPES[c];
+                if (escape == 0) {
+                    buffer[pos++] = (byte) c;
+                } else if (escape > 0) {
+                    buffer[pos++] = '\\';
+                    buffer[pos++] = (byte) escape;
+                } else {
+                    buffer[pos++] = '\\';
+                    buffer[pos++] = 'u';
+                    buffer[pos++] = '0';
+                    buffer[pos++] = '0';
+                    buffer[pos++] = HEX[c >> 4];
+                    buffer[pos++] = HEX[c & 0xF];
+                }
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[pos++] = '\\';
+                buffer[pos++] = 'u';
+                buffer[pos++] = HEX[c >> 12];
+                buffer[pos++] = HEX[(c >> 8) & 0xF];
+                buffer[pos++] = HEX[(c >> 4) & 0xF];
+                buffer[pos++] = HEX[c & 0xF];
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        return pos;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -1,33 +1,20 @@
 package com.github.alideweb.stuffshop.exceptions;
 
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ProblemDetail;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
-
 @Component
+@RequiredArgsConstructor
 public class ExceptionMapper {
-    public ProblemDetail toProblemDetail(BaseHttpException ex, HttpServletRequest request) {
-        ProblemDetail pd = ProblemDetail.forStatus(ex.getStatus());
-
-        pd.setTitle("Error: " + ex.getErrorCode());
-        pd.setDetail(ex.getMessage());
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", ex.getErrorCode());
+    private final ErrorResponseRenderer renderer;
 
-        return pd;
+    public ResponseEntity<byte[]> toResponse(BaseHttpException ex, HttpServletRequest request) {
+        return renderer.toResponse(renderer.template(ex), ex.getMessage(), request);
     }
 
-    public ProblemDetail toInternalServerError(Exception ex, HttpServletRequest request) {
-        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.INTERNAL_SERVER_ERROR);
-
-        pd.setTitle("Unexpected error");
-        pd.setDetail(ex.getMessage());
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", "ERR_INTERNAL");
-
-        return pd;
+    public ResponseEntity<byte[]> toInternalServerError(Exception ex, HttpServletRequest request) {
+        return renderer.toResponse(renderer.template("ERR_INTERNAL"), ex.getMessage(), request);
     }
 }
@@ -1,12 +1,14 @@
 package com.github.alideweb.stuffshop.exceptions;
 
+import com.github.alideweb.stuffshop.common.logging.ExceptionLogSampler;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -15,7 +17,6 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.multipart.MultipartException;
 
-import java.net.URI;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
@@ -23,18 +24,27 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GlobalExceptionHandler {
     private final ExceptionMapper mapper;
+    private final ErrorResponseRenderer renderer;
+    private final ExceptionLogSampler logSampler;
 
     @ExceptionHandler(BaseHttpException.class)
-    public ResponseEntity<ProblemDetail> handleBaseException(BaseHttpException ex, HttpServletRequest request) {
-        log.error("BaseHttpException caught: {} at {}", ex.getMessage(), request.getRequestURI(), ex);
+    public ResponseEntity<byte[]> handleBaseException(BaseHttpException ex, HttpServletRequest request) {
+        logSampler.log(log, ex.getStatus(), ex.getErrorCode(), ex, "BaseHttpException caught: {} at {}", ex.getMessage(), request.getRequestURI());
 
-        ProblemDetail pd = mapper.toProblemDetail(ex, request);
-        return ResponseEntity.status(ex.getStatus()).body(pd);
+        return mapper.toResponse(ex, request);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<byte[]> handleRateLimited(RateLimitExceededException ex, HttpServletRequest request, HttpServletResponse response) {
+        logSampler.log(log, ex.getStatus(), ex.getErrorCode(), ex, "Rate limit exceeded at {}", request.getRequestURI());
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return renderer.toResponse(renderer.template("ERR_RATE_LIMITED"), null, request);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ProblemDetail> handleValidationErrors(MethodArgumentNotValidException ex, HttpServletRequest request) {
-        log.error("Validation error at {}: {}", request.getRequestURI(), ex.getMessage(), ex);
+    public ResponseEntity<byte[]> handleValidationErrors(MethodArgumentNotValidException ex, HttpServletRequest request) {
+        logSampler.log(log, HttpStatus.BAD_REQUEST, "ERR_VALIDATION_FAILED", ex, "Validation error at {}: {}", request.getRequestURI(), ex.getMessage());
 
         String message = ex.getBindingResult()
                 .getFieldErrors()
@@ -42,79 +52,48 @@ public class GlobalExceptionHandler {
                 .map(fieldError -> fieldError.getField() + ": " + fieldError.getDefaultMessage())
                 .collect(Collectors.joining("; "));
 
-        ProblemDetail pd = ProblemDetail.forStatus(400);
-        pd.setTitle("Validation Failed");
-        pd.setDetail(message);
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", "ERR_VALIDATION_FAILED");
-
-        return ResponseEntity.badRequest().body(pd);
+        return renderer.toResponse(renderer.template("ERR_VALIDATION_FAILED"), message, request);
     }
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
-    public ResponseEntity<ProblemDetail> handleJsonParseError(HttpMessageNotReadableException ex, HttpServletRequest request) {
-        log.error("Invalid JSON at {}: {}", request.getRequestURI(), ex.getMessage(), ex);
+    public ResponseEntity<byte[]> handleJsonParseError(HttpMessageNotReadableException ex, HttpServletRequest request) {
+        logSampler.log(log, HttpStatus.BAD_REQUEST, "ERR_INVALID_JSON", ex, "Invalid JSON at {}: {}", request.getRequestURI(), ex.getMessage());
 
-        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
-        pd.setTitle("Malformed JSON request");
-        pd.setDetail("Could not parse JSON body");
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", "ERR_INVALID_JSON");
-
-        return ResponseEntity.badRequest().body(pd);
+        return renderer.toResponse(renderer.template("ERR_INVALID_JSON"), null, request);
     }
 
     @ExceptionHandler(MissingServletRequestParameterException.class)
-    public ResponseEntity<ProblemDetail> handleMissingRequestParam(MissingServletRequestParameterException ex, HttpServletRequest request) {
-        log.error("Missing request parameter at {}: {}", request.getRequestURI(), ex.getMessage(), ex);
+    public ResponseEntity<byte[]> handleMissingRequestParam(MissingServletRequestParameterException ex, HttpServletRequest request) {
+        logSampler.log(log, HttpStatus.BAD_REQUEST, "ERR_MISSING_PARAMETER", ex, "Missing request parameter at {}: {}", request.getRequestURI(), ex.getMessage());
 
         String detail = String.format("Required query parameter '%s' is missing", ex.getParameterName());
 
-        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
-        pd.setTitle("Missing request parameter");
-        pd.setDetail(detail);
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", "ERR_MISSING_PARAMETER");
-
-        return ResponseEntity.badRequest().body(pd);
+        return renderer.toResponse(renderer.template("ERR_MISSING_PARAMETER"), detail, request);
     }
 
     @ExceptionHandler(MultipartException.class)
-    public ResponseEntity<ProblemDetail> handleMultipartError(MultipartException ex, HttpServletRequest request) {
-        log.error("Multipart error at {}: {}", request.getRequestURI(), ex.getMessage(), ex);
+    public ResponseEntity<byte[]> handleMultipartError(MultipartException ex, HttpServletRequest request) {
+        logSampler.log(log, HttpStatus.BAD_REQUEST, "ERR_FILE_UPLOAD", ex, "Multipart error at {}: {}", request.getRequestURI(), ex.getMessage());
 
-        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
-        pd.setTitle("File upload error");
-        pd.setDetail("An error occurred while processing the file upload");
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", "ERR_FILE_UPLOAD");
-
-        return ResponseEntity.badRequest().body(pd);
+        return renderer.toResponse(renderer.template("ERR_FILE_UPLOAD"), null, request);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
-    public ResponseEntity<ProblemDetail> handleConstraintViolations(ConstraintViolationException ex, HttpServletRequest request) {
-        log.error("Constraint violation at {}: {}", request.getRequestURI(), ex.getMessage(), ex);
+    public ResponseEntity<byte[]> handleConstraintViolations(ConstraintViolationException ex, HttpServletRequest request) {
+        logSampler.log(log, HttpStatus.BAD_REQUEST, "ERR_CONSTRAINT_VIOLATION", ex, "Constraint violation at {}: {}", request.getRequestURI(), ex.getMessage());
 
         String message = ex.getConstraintViolations()
                 .stream()
                 .map(ConstraintViolation::getMessage)
                 .collect(Collectors.joining("; "));
 
-        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
-        pd.setTitle("Constraint Violation");
-        pd.setDetail(message);
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", "ERR_CONSTRAINT_VIOLATION");
-
-        return ResponseEntity.badRequest().body(pd);
+        return renderer.toResponse(renderer.template("ERR_CONSTRAINT_VIOLATION"), message, request);
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ProblemDetail> handleGenericException(Exception ex, HttpServletRequest request) {
-        log.error("Unexpected error at {}: {}", request.getRequestURI(), ex.getMessage(), ex);
+    public ResponseEntity<byte[]> handleGenericException(Exception ex, HttpServletRequest request) {
+        logSampler.log(log, HttpStatus.INTERNAL_SERVER_ERROR, "ERR_INTERNAL", ex, "Unexpected error at {}: {}", request.getRequestURI(), ex.getMessage());
 
-        ProblemDetail pd = mapper.toInternalServerError(ex, request);
-        return ResponseEntity.internalServerError().body(pd);
+        return mapper.toInternalServerError(ex, request);
     }
 }
@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class HashingUnavailableException extends BaseHttpException {
+    public HashingUnavailableException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "ERR_HASHING_UNAVAILABLE", "server is busy, please retry shortly");
+    }
+}
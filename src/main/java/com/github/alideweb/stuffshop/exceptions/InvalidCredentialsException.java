@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCredentialsException extends BaseHttpException {
+    public InvalidCredentialsException() {
+        super(HttpStatus.UNAUTHORIZED, "ERR_INVALID_CREDENTIALS", "username or password is incorrect");
+    }
+}
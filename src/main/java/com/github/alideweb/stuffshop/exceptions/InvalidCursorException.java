@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends BaseHttpException {
+    public InvalidCursorException() {
+        super(HttpStatus.BAD_REQUEST, "ERR_INVALID_CURSOR", "cursor is not valid");
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidImportFileException extends BaseHttpException {
+    public InvalidImportFileException(String message) {
+        super(HttpStatus.BAD_REQUEST, "ERR_INVALID_IMPORT_FILE", message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidTokenException extends BaseHttpException {
+    public InvalidTokenException() {
+        super(HttpStatus.UNAUTHORIZED, "ERR_INVALID_TOKEN", "token is invalid, expired or revoked");
+    }
+}
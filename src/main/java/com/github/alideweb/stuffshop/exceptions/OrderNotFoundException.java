@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class OrderNotFoundException extends BaseHttpException {
+    public OrderNotFoundException(Long id) {
+        super(HttpStatus.NOT_FOUND, "ERR_ORDER_NOT_FOUND", "order with id " + id + " not found");
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class OrderNotPendingException extends BaseHttpException {
+    public OrderNotPendingException(Long id) {
+        super(HttpStatus.CONFLICT, "ERR_ORDER_NOT_PENDING", "order with id " + id + " is no longer pending");
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class OutOfStockException extends BaseHttpException {
+    public OutOfStockException(Long productId) {
+        super(HttpStatus.CONFLICT, "ERR_OUT_OF_STOCK", "product with id " + productId + " is out of stock");
+    }
+}
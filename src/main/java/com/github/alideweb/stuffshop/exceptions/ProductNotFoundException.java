@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class ProductNotFoundException extends BaseHttpException {
+    public ProductNotFoundException(Long id) {
+        super(HttpStatus.NOT_FOUND, "ERR_PRODUCT_NOT_FOUND", "product with id " + id + " not found");
+    }
+}
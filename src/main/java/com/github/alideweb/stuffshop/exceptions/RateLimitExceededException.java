@@ -0,0 +1,15 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class RateLimitExceededException extends BaseHttpException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "ERR_RATE_LIMITED", "too many requests, please retry later");
+
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class ReservationExpiredException extends BaseHttpException {
+    public ReservationExpiredException(Long orderId) {
+        super(HttpStatus.CONFLICT, "ERR_RESERVATION_EXPIRED", "reservation for order " + orderId + " has expired");
+    }
+}
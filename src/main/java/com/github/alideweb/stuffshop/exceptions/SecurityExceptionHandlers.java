@@ -1,13 +1,12 @@
 package com.github.alideweb.stuffshop.exceptions;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alideweb.stuffshop.common.logging.ExceptionLogSampler;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ProblemDetail;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -15,41 +14,25 @@ import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.net.URI;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class SecurityExceptionHandlers implements AuthenticationEntryPoint, AccessDeniedHandler {
-    private final ObjectMapper objectMapper;
+    private final ErrorResponseRenderer renderer;
+    private final ExceptionLogSampler logSampler;
 
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException) throws IOException, ServletException {
-        log.error("🔐 Unauthorized access attempt to {}", request.getRequestURI(), authException);
+        logSampler.log(log, HttpStatus.UNAUTHORIZED, "ERR_UNAUTHORIZED", authException, "🔐 Unauthorized access attempt to {}", request.getRequestURI());
 
-        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.UNAUTHORIZED);
-        pd.setTitle("Unauthorized");
-        pd.setDetail("Authentication is required to access this resource");
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", "ERR_UNAUTHORIZED");
-
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType("application/json");
-        response.getWriter().write(objectMapper.writeValueAsString(pd));
+        renderer.write(renderer.template("ERR_UNAUTHORIZED"), request, response);
     }
 
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, AccessDeniedException accessDeniedException) throws IOException, ServletException {
-        log.error("🚫 Forbidden access attempt to {}", request.getRequestURI(), accessDeniedException);
-
-        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.FORBIDDEN);
-        pd.setTitle("Forbidden");
-        pd.setDetail("You do not have permission to access this resource");
-        pd.setInstance(URI.create(request.getRequestURI()));
-        pd.setProperty("code", "ERR_FORBIDDEN");
+        logSampler.log(log, HttpStatus.FORBIDDEN, "ERR_FORBIDDEN", accessDeniedException, "🚫 Forbidden access attempt to {}", request.getRequestURI());
 
-        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-        response.setContentType("application/json");
-        response.getWriter().write(objectMapper.writeValueAsString(pd));
+        renderer.write(renderer.template("ERR_FORBIDDEN"), request, response);
     }
 }
@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class UserAlreadyExistsException extends BaseHttpException {
+    public UserAlreadyExistsException(String field) {
+        super(HttpStatus.CONFLICT, "ERR_USER_ALREADY_EXISTS", "user with this " + field + " already exists");
+    }
+}
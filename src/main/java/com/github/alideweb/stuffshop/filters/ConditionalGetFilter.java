@@ -0,0 +1,158 @@
+package com.github.alideweb.stuffshop.filters;
+
+import com.github.alideweb.stuffshop.common.etag.ResourceVersionProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers {@code If-None-Match} with a 304 before the controller runs. The ETag is an MD5 of the response body,
+ * cached under the request and the resource version reported by a {@link ResourceVersionProvider}; once a version
+ * has been rendered, a client that already has it costs a version lookup and a cache hit. A version change is a new
+ * cache key, so stale ETags are never served and simply age out of the cache. The ETag is weak because the same
+ * entity may go out gzip-encoded, and Tomcat refuses to compress responses that carry a strong one.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetFilter extends OncePerRequestFilter implements MeterBinder {
+    private final List<ResourceVersionProvider> providers;
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder rendered = new LongAdder();
+
+    @Value("${etag.cache.maxSize:10000}")
+    private long maxSize;
+
+    private Cache<String, String> etags;
+
+    @PostConstruct
+    public void init() {
+        etags = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        ResourceVersionProvider provider = null;
+        String version = null;
+        for (ResourceVersionProvider candidate : providers) {
+            version = candidate.version(request);
+            if (version != null) {
+                provider = candidate;
+                break;
+            }
+        }
+
+        if (provider == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = key(request, version, provider.isPerUser());
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        String cached = etags.getIfPresent(key);
+
+        if (cached != null && matches(ifNoneMatch, cached)) {
+            notModified.increment();
+            writeHeaders(response, provider, cached);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        var wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || response.isCommitted()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(wrapper.getContentAsByteArray()) + "\"";
+        etags.put(key, etag);
+        rendered.increment();
+        writeHeaders(wrapper, provider, etag);
+
+        if (matches(ifNoneMatch, etag)) {
+            notModified.increment();
+            wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            wrapper.resetBuffer();
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, etags, "etags");
+        FunctionCounter.builder("http.conditional.responses", notModified, LongAdder::sum)
+                .tag("outcome", "not_modified")
+                .register(registry);
+        FunctionCounter.builder("http.conditional.responses", rendered, LongAdder::sum)
+                .tag("outcome", "rendered")
+                .register(registry);
+    }
+
+    private static String key(HttpServletRequest request, String version, boolean perUser) {
+        var key = new StringBuilder(request.getRequestURI());
+        if (request.getQueryString() != null) key.append('?').append(request.getQueryString());
+        key.append('#').append(version);
+
+        if (perUser) {
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            key.append('@').append(authentication == null ? "" : authentication.getName());
+        }
+
+        return key.toString();
+    }
+
+    private static void writeHeaders(HttpServletResponse response, ResourceVersionProvider provider, String etag) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, provider.cacheControl().getHeaderValue());
+        if (provider.isPerUser()) response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || opaque(value).equals(opaque)) return true;
+        }
+
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -1,12 +1,16 @@
 package com.github.alideweb.stuffshop.filters;
 
+import com.github.alideweb.stuffshop.modules.jwt.JwtClaims;
 import com.github.alideweb.stuffshop.modules.jwt.JwtService;
+import com.github.alideweb.stuffshop.modules.jwt.TokenRevocationRegistry;
+import com.github.alideweb.stuffshop.modules.user.CustomUserDetails;
 import com.github.alideweb.stuffshop.modules.user.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,13 +28,17 @@ import java.util.List;
 public class JwtFilters extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationRegistry revocationRegistry;
+
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean statelessAuth;
 
     private final List<String> excludedPaths = Arrays.asList(
             "/docs",
             "/openapi",
             "/swagger-ui",
             "/auth",
-            "/health"
+            "/health/live"
     );
 
     @Override
@@ -44,24 +52,25 @@ public class JwtFilters extends OncePerRequestFilter {
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        JwtClaims claims = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
             try {
-                username = jwtService.extractUserName(token);
+                claims = jwtService.parseToken(authHeader.substring(7));
             } catch (Exception e) {
                 filterChain.doFilter(request, response);
                 return;
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (claims != null && !revocationRegistry.isRevoked(claims) &&
+                SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = statelessAuth
+                        ? CustomUserDetails.fromClaims(claims.username(), claims.role())
+                        : userDetailsService.loadUserByUsername(claims.username());
 
-                if (jwtService.isJwtTokenValid(token, userDetails)) {
+                if (jwtService.isJwtTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     userDetails,
@@ -0,0 +1,43 @@
+package com.github.alideweb.stuffshop.filters;
+
+import com.github.alideweb.stuffshop.exceptions.ErrorResponseRenderer;
+import com.github.alideweb.stuffshop.modules.ratelimit.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter rateLimiter;
+    private final ErrorResponseRenderer renderer;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || rateLimiter.routeFor(request.getServletPath()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String route = rateLimiter.routeFor(request.getServletPath());
+        long waitNanos = rateLimiter.tryAcquireIp(route, request.getRemoteAddr());
+
+        if (waitNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimiter.retryAfterSeconds(waitNanos)));
+            renderer.write(renderer.template("ERR_RATE_LIMITED"), request, response);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,10 +1,16 @@
 package com.github.alideweb.stuffshop.modules.auth;
 
 import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.exceptions.InvalidTokenException;
+import com.github.alideweb.stuffshop.modules.auth.dto.LoginRequestDto;
 import com.github.alideweb.stuffshop.modules.auth.dto.SignUpRequestDto;
 import com.github.alideweb.stuffshop.modules.auth.dto.UserResponseDto;
+import com.github.alideweb.stuffshop.modules.jwt.JwtClaims;
 import com.github.alideweb.stuffshop.modules.jwt.JwtService;
+import com.github.alideweb.stuffshop.modules.jwt.TokenRevocationRegistry;
+import com.github.alideweb.stuffshop.modules.ratelimit.RateLimiter;
 import com.github.alideweb.stuffshop.modules.user.entity.UserEntity;
+import com.github.alideweb.stuffshop.modules.user.UserNormalizer;
 import com.github.alideweb.stuffshop.modules.user.UserService;
 import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,6 +20,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -26,12 +33,15 @@ import java.util.Optional;
 public class AuthController {
     private final UserService userService;
     private final JwtService jwtService;
+    private final RateLimiter rateLimiter;
+    private final TokenRevocationRegistry revocationRegistry;
 
     @PostMapping("/sign-up")
     public ResponseEntity<ApiResponse<UserResponseDto>> signUp(@Valid @RequestBody SignUpRequestDto request) {
         var user = new UserEntity();
-        user.setUsername(request.getUsername().trim().toLowerCase().replace(" ", "_"));
-        user.setEmail(request.getEmail().trim().toLowerCase());
+        user.setUsername(UserNormalizer.username(request.getUsername()));
+        rateLimiter.acquireUsername("sign-up", user.getUsername());
+        user.setEmail(UserNormalizer.email(request.getEmail()));
         user.setPassword(request.getPassword());
         String name = Optional.ofNullable(request.getName())
                 .map(String::trim)
@@ -60,4 +70,79 @@ public class AuthController {
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    @PostMapping("/login")
+    public ResponseEntity<ApiResponse<UserResponseDto>> login(@Valid @RequestBody LoginRequestDto request) {
+        var username = UserNormalizer.username(request.getUsername());
+        rateLimiter.acquireUsername("login", username);
+
+        var user = userService.authenticate(username, request.getPassword());
+        var jwt = jwtService.generateJwtToken(user.getUsername(), user.getRole());
+
+        var userDto = UserResponseDto.builder()
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .name(user.getName())
+                .token(jwt)
+                .build();
+
+        var response = ApiResponse.<UserResponseDto>builder()
+                .message("you logged in successfully")
+                .status(HttpStatus.OK.value())
+                .data(userDto)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<UserResponseDto>> refresh(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        var claims = parseBearer(authHeader);
+        if (revocationRegistry.isRevoked(claims)) throw new InvalidTokenException();
+
+        var user = userService.findByUsername(claims.username());
+        var jwt = jwtService.generateJwtToken(user.getUsername(), user.getRole());
+
+        var userDto = UserResponseDto.builder()
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .name(user.getName())
+                .token(jwt)
+                .build();
+
+        var response = ApiResponse.<UserResponseDto>builder()
+                .message("token refreshed successfully")
+                .status(HttpStatus.OK.value())
+                .data(userDto)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        var claims = parseBearer(authHeader);
+        userService.revokeTokens(claims.username());
+
+        var response = ApiResponse.<Void>builder()
+                .message("you logged out successfully")
+                .status(HttpStatus.OK.value())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    private JwtClaims parseBearer(String authHeader) throws InvalidTokenException {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new InvalidTokenException();
+        }
+
+        try {
+            return jwtService.parseToken(authHeader.substring(7));
+        } catch (Exception e) {
+            throw new InvalidTokenException();
+        }
+    }
 }
@@ -0,0 +1,13 @@
+package com.github.alideweb.stuffshop.modules.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class LoginRequestDto {
+    @NotBlank
+    private String username;
+
+    @NotBlank
+    private String password;
+}
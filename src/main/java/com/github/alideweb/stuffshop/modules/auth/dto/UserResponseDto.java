@@ -1,15 +1,38 @@
 package com.github.alideweb.stuffshop.modules.auth.dto;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.alideweb.stuffshop.common.json.JsonFields;
+import com.github.alideweb.stuffshop.common.json.JsonWritable;
 import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.IOException;
+
 @Data
 @Builder
-public class UserResponseDto {
+public class UserResponseDto implements JsonWritable {
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString ROLE = new SerializedString("role");
+    private static final SerializedString TOKEN = new SerializedString("token");
+
     private String username;
     private String email;
     private String name;
     private UserRoles role;
     private String token;
+
+    @Override
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.string(generator, USERNAME, username);
+        JsonFields.string(generator, EMAIL, email);
+        JsonFields.string(generator, NAME, name);
+        JsonFields.string(generator, ROLE, role);
+        JsonFields.string(generator, TOKEN, token);
+        generator.writeEndObject();
+    }
 }
@@ -0,0 +1,54 @@
+package com.github.alideweb.stuffshop.modules.cart;
+
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.modules.cart.dto.CartDto;
+import com.github.alideweb.stuffshop.modules.cart.dto.CartItemRequestDto;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/cart")
+@RequiredArgsConstructor
+@Tag(name = "Cart", description = "Shopping cart of the authenticated user")
+public class CartController {
+    private final CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<CartDto>> getCart(@AuthenticationPrincipal UserDetails principal) {
+        return ok("cart fetched successfully", cartService.getCart(principal.getUsername()));
+    }
+
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<ApiResponse<CartDto>> setItem(@AuthenticationPrincipal UserDetails principal,
+                                                        @PathVariable Long productId,
+                                                        @Valid @RequestBody CartItemRequestDto request) {
+        return ok("cart updated successfully", cartService.setQuantity(principal.getUsername(), productId, request.getQuantity()));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<ApiResponse<CartDto>> removeItem(@AuthenticationPrincipal UserDetails principal,
+                                                           @PathVariable Long productId) {
+        return ok("cart updated successfully", cartService.setQuantity(principal.getUsername(), productId, 0));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<CartDto>> clear(@AuthenticationPrincipal UserDetails principal) {
+        return ok("cart cleared successfully", cartService.clear(principal.getUsername()));
+    }
+
+    private static ResponseEntity<ApiResponse<CartDto>> ok(String message, CartDto cart) {
+        var response = ApiResponse.<CartDto>builder()
+                .message(message)
+                .status(HttpStatus.OK.value())
+                .data(cart)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.alideweb.stuffshop.modules.cart;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class CartPersistence {
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    public Map<Long, Integer> load(String username) {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        jdbcTemplate.query("select product_id, quantity from cart_items where username = ? order by product_id",
+                (RowCallbackHandler) rs -> items.put(rs.getLong(1), rs.getInt(2)),
+                username);
+
+        return items;
+    }
+
+    void save(List<CartSnapshot> carts) {
+        List<Object[]> usernames = new ArrayList<>(carts.size());
+        List<Object[]> rows = new ArrayList<>(carts.size());
+        List<Object[]> items = new ArrayList<>();
+        var now = Timestamp.from(Instant.now());
+
+        for (CartSnapshot cart : carts) {
+            usernames.add(new Object[]{cart.username()});
+            if (cart.items().isEmpty()) continue;
+
+            rows.add(new Object[]{cart.username(), now});
+            cart.items().forEach((productId, quantity) -> items.add(new Object[]{cart.username(), productId, quantity}));
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("delete from carts where username = ?", usernames);
+            jdbcTemplate.batchUpdate("insert into carts (username, updated_at) values (?, ?)", rows);
+            jdbcTemplate.batchUpdate("insert into cart_items (username, product_id, quantity) values (?, ?, ?)", items);
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.alideweb.stuffshop.modules.cart;
+
+import com.github.alideweb.stuffshop.exceptions.CartFullException;
+import com.github.alideweb.stuffshop.exceptions.ProductNotFoundException;
+import com.github.alideweb.stuffshop.modules.cart.dto.CartDto;
+import com.github.alideweb.stuffshop.modules.cart.dto.CartItemDto;
+import com.github.alideweb.stuffshop.modules.product.CatalogIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class CartService {
+    private final CartStore cartStore;
+    private final CatalogIndex catalogIndex;
+
+    @Value("${cart.maxItems:100}")
+    private int maxItems;
+
+    public CartDto getCart(String username) {
+        return toDto(cartStore.view(username));
+    }
+
+    public CartDto setQuantity(String username, Long productId, int quantity) throws ProductNotFoundException, CartFullException {
+        if (quantity > 0 && catalogIndex.find(productId).isEmpty()) {
+            throw new ProductNotFoundException(productId);
+        }
+
+        var items = cartStore.mutate(username, cart -> {
+            if (quantity == 0) return cart.remove(productId) != null;
+            if (!cart.containsKey(productId) && cart.size() >= maxItems) throw new CartFullException(maxItems);
+
+            return !Objects.equals(cart.put(productId, quantity), quantity);
+        });
+
+        return toDto(items);
+    }
+
+    public CartDto clear(String username) {
+        var items = cartStore.mutate(username, cart -> {
+            if (cart.isEmpty()) return false;
+
+            cart.clear();
+            return true;
+        });
+
+        return toDto(items);
+    }
+
+    private CartDto toDto(Map<Long, Integer> items) {
+        List<CartItemDto> lines = new ArrayList<>(items.size());
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (var entry : items.entrySet()) {
+            var product = catalogIndex.find(entry.getKey()).orElse(null);
+            if (product == null) continue;
+
+            lines.add(new CartItemDto(product.id(), product.name(), product.price(), entry.getValue()));
+            total = total.add(product.price().multiply(BigDecimal.valueOf(entry.getValue())));
+        }
+        lines.sort((a, b) -> Long.compare(a.productId(), b.productId()));
+
+        return new CartDto(lines, total);
+    }
+}
@@ -0,0 +1,6 @@
+package com.github.alideweb.stuffshop.modules.cart;
+
+import java.util.Map;
+
+record CartSnapshot(String username, long version, Map<Long, Integer> items) {
+}
@@ -0,0 +1,312 @@
+package com.github.alideweb.stuffshop.modules.cart;
+
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Carts live in lock-striped, access-ordered maps and are written to Postgres behind the request: a mutation only
+ * bumps the cart version and queues the username once, and the flusher persists the latest state of each queued
+ * cart in one batch. Clean carts are evicted least-recently-used first when a stripe exceeds its share of
+ * {@code cart.memoryBudgetMb}; evicted carts are loaded back from the database on next access. A failed write puts
+ * its carts back in the queue and pauses flushing for an exponentially growing delay, so an unavailable database is
+ * retried at a bounded rate instead of in a loop. Request threads never write: a cart that does not fit in the full
+ * queue stays dirty, which keeps it in memory, and the next flush sweeps the stripes for it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartStore implements MeterBinder {
+    private static final long CART_OVERHEAD_BYTES = 256;
+    private static final long ITEM_BYTES = 64;
+
+    private final CartPersistence persistence;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Value("${cart.stripes:64}")
+    private int stripeCount;
+
+    @Value("${cart.memoryBudgetMb:64}")
+    private long memoryBudgetMb;
+
+    @Value("${cart.writeBehind.queueLimit:10000}")
+    private int queueLimit;
+
+    @Value("${cart.writeBehind.batchSize:500}")
+    private int batchSize;
+
+    @Value("${cart.writeBehind.retryMillis:500}")
+    private long retryMillis;
+
+    @Value("${cart.writeBehind.maxRetryMillis:30000}")
+    private long maxRetryMillis;
+
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private BlockingQueue<String> pending;
+    private Stripe[] stripes;
+    private long stripeBudgetBytes;
+    private volatile int failures;
+    private volatile long retryAt;
+    private volatile boolean overflowed;
+
+    @PostConstruct
+    public void init() {
+        pending = new ArrayBlockingQueue<>(queueLimit);
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) stripes[i] = new Stripe();
+        stripeBudgetBytes = memoryBudgetMb * 1024 * 1024 / stripeCount;
+    }
+
+    public Map<Long, Integer> view(String username) {
+        return withCart(username, cart -> Map.copyOf(cart.items));
+    }
+
+    public Map<Long, Integer> mutate(String username, Predicate<Map<Long, Integer>> mutation) {
+        long start = System.nanoTime();
+        try {
+            boolean[] changed = new boolean[1];
+            Map<Long, Integer> items = withCart(username, cart -> {
+                if (mutation.test(cart.items)) {
+                    cart.version++;
+                    changed[0] = true;
+                }
+                return Map.copyOf(cart.items);
+            });
+
+            if (changed[0]) enqueue(username);
+            return items;
+        } finally {
+            pipelineMetrics.getCartMutation().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.writeBehind.flushMillis:200}")
+    public void flushPending() {
+        if (backingOff()) return;
+
+        // Only what is queued now: failed carts go back in the queue and wait for the next run
+        int remaining = pending.size();
+        List<String> batch = new ArrayList<>(Math.min(batchSize, remaining));
+        while (remaining > 0 && pending.drainTo(batch, Math.min(batchSize, remaining)) > 0) {
+            remaining -= batch.size();
+            boolean saved = flush(batch);
+            batch.clear();
+            if (!saved) return;
+        }
+
+        if (overflowed) {
+            overflowed = false;
+            flushInBatches(dirtyCarts(false));
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flushPending();
+
+        List<String> dirty = dirtyCarts(true);
+        flushInBatches(dirty);
+        log.info("Flushed {} dirty carts on shutdown", dirty.size());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("cart.store.size", this, store -> store.sum(stripe -> stripe.carts.size()))
+                .description("Carts held in memory")
+                .register(registry);
+        Gauge.builder("cart.store.bytes", this, store -> store.sum(stripe -> stripe.bytes))
+                .description("Estimated memory held by in-memory carts")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("cart.writebehind.pending", this, store -> store.pending.size())
+                .description("Carts waiting to be written to the database")
+                .register(registry);
+    }
+
+    private <T> T withCart(String username, Function<Cart, T> action) {
+        var stripe = stripes[(username.hashCode() & 0x7fffffff) % stripes.length];
+        Map<Long, Integer> loaded = null;
+
+        while (true) {
+            stripe.lock.lock();
+            try {
+                var cart = stripe.carts.get(username);
+                if (cart == null && loaded != null) {
+                    cart = new Cart(loaded);
+                    stripe.carts.put(username, cart);
+                    stripe.bytes += cart.estimatedBytes();
+                }
+
+                if (cart != null) {
+                    long before = cart.estimatedBytes();
+                    T result = action.apply(cart);
+                    stripe.bytes += cart.estimatedBytes() - before;
+                    evict(stripe);
+                    return result;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+
+            loaded = new LinkedHashMap<>(persistence.load(username));
+        }
+    }
+
+    private void evict(Stripe stripe) {
+        if (stripe.bytes <= stripeBudgetBytes) return;
+
+        Iterator<Cart> eldestFirst = stripe.carts.values().iterator();
+        while (stripe.bytes > stripeBudgetBytes && eldestFirst.hasNext()) {
+            var cart = eldestFirst.next();
+            if (cart.isDirty()) continue;
+
+            stripe.bytes -= cart.estimatedBytes();
+            eldestFirst.remove();
+        }
+    }
+
+    private void enqueue(String username) {
+        if (!queued.add(username)) return;
+
+        if (!pending.offer(username)) {
+            queued.remove(username);
+            overflowed = true;
+        }
+    }
+
+    private List<String> dirtyCarts(boolean includeQueued) {
+        List<String> dirty = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.carts.forEach((username, cart) -> {
+                    if (cart.isDirty() && (includeQueued || !queued.contains(username))) dirty.add(username);
+                });
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return dirty;
+    }
+
+    private void flushInBatches(List<String> usernames) {
+        for (int from = 0; from < usernames.size(); from += batchSize) {
+            if (!flush(usernames.subList(from, Math.min(from + batchSize, usernames.size())))) return;
+        }
+    }
+
+    private boolean flush(List<String> usernames) {
+        long start = System.nanoTime();
+        flushLock.lock();
+        try {
+            List<CartSnapshot> snapshots = new ArrayList<>(usernames.size());
+            for (String username : usernames) {
+                queued.remove(username);
+                var snapshot = snapshot(username);
+                if (snapshot != null) snapshots.add(snapshot);
+            }
+            if (snapshots.isEmpty()) return true;
+
+            try {
+                persistence.save(snapshots);
+            } catch (Exception e) {
+                long delay = Math.min(maxRetryMillis, retryMillis << Math.min(failures, 16));
+                failures++;
+                retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+                log.warn("Could not persist {} carts, retrying in {} ms: {}", snapshots.size(), delay, e.getMessage());
+                snapshots.forEach(snapshot -> {
+                    if (queued.add(snapshot.username()) && !pending.offer(snapshot.username())) {
+                        queued.remove(snapshot.username());
+                        overflowed = true;
+                    }
+                });
+                return false;
+            }
+
+            failures = 0;
+            snapshots.forEach(this::markPersisted);
+            return true;
+        } finally {
+            flushLock.unlock();
+            pipelineMetrics.getCartFlush().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean backingOff() {
+        return failures > 0 && System.nanoTime() - retryAt < 0;
+    }
+
+    private CartSnapshot snapshot(String username) {
+        var stripe = stripes[(username.hashCode() & 0x7fffffff) % stripes.length];
+        stripe.lock.lock();
+        try {
+            var cart = stripe.carts.get(username);
+            if (cart == null || !cart.isDirty()) return null;
+
+            return new CartSnapshot(username, cart.version, Map.copyOf(cart.items));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void markPersisted(CartSnapshot snapshot) {
+        var stripe = stripes[(snapshot.username().hashCode() & 0x7fffffff) % stripes.length];
+        stripe.lock.lock();
+        try {
+            var cart = stripe.carts.get(snapshot.username());
+            if (cart != null) cart.persistedVersion = Math.max(cart.persistedVersion, snapshot.version());
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private long sum(ToLongFunction<Stripe> value) {
+        long total = 0;
+        for (Stripe stripe : stripes) total += value.applyAsLong(stripe);
+        return total;
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Cart> carts = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+    }
+
+    private static final class Cart {
+        private final Map<Long, Integer> items;
+        private long version;
+        private long persistedVersion;
+
+        private Cart(Map<Long, Integer> items) {
+            this.items = items;
+        }
+
+        private boolean isDirty() {
+            return version != persistedVersion;
+        }
+
+        private long estimatedBytes() {
+            return CART_OVERHEAD_BYTES + items.size() * ITEM_BYTES;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.alideweb.stuffshop.modules.cart.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.alideweb.stuffshop.common.json.JsonFields;
+import com.github.alideweb.stuffshop.common.json.JsonWritable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CartDto(List<CartItemDto> items, BigDecimal total) implements JsonWritable {
+    private static final SerializedString ITEMS = new SerializedString("items");
+    private static final SerializedString TOTAL = new SerializedString("total");
+
+    @Override
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.array(generator, ITEMS, items);
+        JsonFields.number(generator, TOTAL, total);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.alideweb.stuffshop.modules.cart.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.alideweb.stuffshop.common.json.JsonFields;
+import com.github.alideweb.stuffshop.common.json.JsonWritable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+public record CartItemDto(long productId, String name, BigDecimal price, int quantity) implements JsonWritable {
+    private static final SerializedString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+
+    @Override
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.number(generator, PRODUCT_ID, productId);
+        JsonFields.string(generator, NAME, name);
+        JsonFields.number(generator, PRICE, price);
+        JsonFields.number(generator, QUANTITY, quantity);
+        generator.writeEndObject();
+    }
+}
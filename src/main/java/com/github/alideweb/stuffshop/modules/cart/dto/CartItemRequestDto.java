@@ -0,0 +1,14 @@
+package com.github.alideweb.stuffshop.modules.cart.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartItemRequestDto {
+    @NotNull
+    @Min(0)
+    @Max(99)
+    private Integer quantity;
+}
@@ -0,0 +1,135 @@
+package com.github.alideweb.stuffshop.modules.health;
+
+import com.github.alideweb.stuffshop.modules.password.PasswordHashingService;
+import com.github.alideweb.stuffshop.modules.product.CatalogIndex;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HealthChecker {
+    private final DataSource dataSource;
+    private final PasswordHashingService passwordHashingService;
+    private final CatalogIndex catalogIndex;
+
+    @Value("${health.db.timeoutSeconds:1}")
+    private int dbTimeoutSeconds;
+
+    @Value("${health.pool.maxSaturation:0.9}")
+    private double maxPoolSaturation;
+
+    @Value("${health.hashing.maxQueueRatio:0.9}")
+    private double maxHashingQueueRatio;
+
+    @Value("${health.heap.maxUsage:0.9}")
+    private double maxHeapUsage;
+
+    private final MemoryPoolMXBean oldGen = findOldGen();
+    private volatile HealthSnapshot snapshot = HealthSnapshot.starting();
+
+    public HealthSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${health.checkIntervalMillis:2000}")
+    public void check() {
+        Map<String, HealthSnapshot.Component> components = new LinkedHashMap<>();
+        components.put("db", checkDatabase());
+        components.put("pool", checkPool());
+        components.put("hashing", checkHashingQueue());
+        components.put("heap", checkHeap());
+        components.put("catalog", checkCatalog());
+
+        boolean ready = components.values().stream().allMatch(HealthSnapshot.Component::up);
+        if (ready != snapshot.ready()) {
+            log.info("Readiness changed to {}: {}", ready ? "UP" : "DOWN", components);
+        }
+
+        snapshot = new HealthSnapshot(ready, Instant.now(), Map.copyOf(components));
+    }
+
+    private HealthSnapshot.Component checkDatabase() {
+        try (var connection = dataSource.getConnection()) {
+            return connection.isValid(dbTimeoutSeconds)
+                    ? new HealthSnapshot.Component(true, "connection valid")
+                    : new HealthSnapshot.Component(false, "connection not valid");
+        } catch (Exception e) {
+            return new HealthSnapshot.Component(false, e.getMessage());
+        }
+    }
+
+    private HealthSnapshot.Component checkPool() {
+        var hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        if (hikari == null || hikari.getHikariPoolMXBean() == null) {
+            return new HealthSnapshot.Component(true, "not a Hikari pool");
+        }
+
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        int active = pool.getActiveConnections();
+        int max = hikari.getMaximumPoolSize();
+        int waiting = pool.getThreadsAwaitingConnection();
+        boolean up = active < max * maxPoolSaturation || waiting == 0;
+
+        return new HealthSnapshot.Component(up, active + "/" + max + " active, " + waiting + " waiting");
+    }
+
+    private HealthSnapshot.Component checkHashingQueue() {
+        int depth = passwordHashingService.getQueueDepth();
+        int limit = passwordHashingService.getQueueLimit();
+
+        return new HealthSnapshot.Component(depth < limit * maxHashingQueueRatio, depth + "/" + limit + " queued");
+    }
+
+    private HealthSnapshot.Component checkCatalog() {
+        return catalogIndex.isLoaded()
+                ? new HealthSnapshot.Component(true, catalogIndex.size() + " products")
+                : new HealthSnapshot.Component(false, "not loaded yet");
+    }
+
+    /**
+     * Judges the old generation as the last collection left it: live data that survives GC, not garbage waiting for
+     * the next cycle.
+     */
+    private HealthSnapshot.Component checkHeap() {
+        var runtime = Runtime.getRuntime();
+        if (oldGen == null || oldGen.getCollectionUsage() == null) {
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            long max = runtime.maxMemory();
+            return new HealthSnapshot.Component(used < max * maxHeapUsage, (used >> 20) + "/" + (max >> 20) + " MiB used");
+        }
+
+        var usage = oldGen.getCollectionUsage();
+        long used = usage.getUsed();
+        long max = usage.getMax() > 0 ? usage.getMax() : runtime.maxMemory();
+
+        return new HealthSnapshot.Component(used < max * maxHeapUsage,
+                (used >> 20) + "/" + (max >> 20) + " MiB " + oldGen.getName() + " after last GC");
+    }
+
+    private static MemoryPoolMXBean findOldGen() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            String name = pool.getName();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()
+                    && (name.contains("Old") || name.contains("Tenured"))) {
+                return pool;
+            }
+        }
+        return null;
+    }
+}
@@ -1,17 +1,54 @@
 package com.github.alideweb.stuffshop.modules.health;
 
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+
 @RestController
 @RequestMapping("/health")
-@Tag(name = "Health", description = "Simple health check endpoint for uptime monitoring")
+@RequiredArgsConstructor
+@Tag(name = "Health", description = "Liveness and readiness probes for load balancers and orchestrators")
 public class HealthController {
-    @GetMapping
-    public ResponseEntity<String> checkHealth() {
+    private final HealthChecker healthChecker;
+
+    @Value("${health.staleAfterMillis:10000}")
+    private long staleAfterMillis;
+
+    @GetMapping("/live")
+    public ResponseEntity<String> live() {
         return ResponseEntity.ok("Backend is up and running!");
     }
+
+    @GetMapping({"", "/ready"})
+    public ResponseEntity<ApiResponse<HealthSnapshot>> ready(@AuthenticationPrincipal UserDetails principal) {
+        var snapshot = healthChecker.getSnapshot();
+        boolean ready = snapshot.ready() && !snapshot.isStale(Instant.now(), staleAfterMillis);
+        var status = ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+
+        var response = ApiResponse.<HealthSnapshot>builder()
+                .message(ready ? "ready" : "not ready")
+                .status(status.value())
+                .data(isAdmin(principal) ? snapshot : null)
+                .build();
+
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /**
+     * Component details name internal hosts, pool sizes and error messages, so anonymous probes only get up or down.
+     */
+    private static boolean isAdmin(UserDetails principal) {
+        return principal != null && principal.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
 }
@@ -0,0 +1,17 @@
+package com.github.alideweb.stuffshop.modules.health;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record HealthSnapshot(boolean ready, Instant checkedAt, Map<String, Component> components) {
+    public record Component(boolean up, String detail) {
+    }
+
+    public static HealthSnapshot starting() {
+        return new HealthSnapshot(false, null, Map.of());
+    }
+
+    public boolean isStale(Instant now, long staleAfterMillis) {
+        return checkedAt == null || checkedAt.plusMillis(staleAfterMillis).isBefore(now);
+    }
+}
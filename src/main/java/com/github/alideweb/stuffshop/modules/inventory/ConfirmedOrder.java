@@ -0,0 +1,10 @@
+package com.github.alideweb.stuffshop.modules.inventory;
+
+import java.util.Map;
+
+/**
+ * A confirmed order whose stock decrement has not been written to the inventory table yet. {@code reservedHere} is
+ * false for orders recovered from the database on startup, whose quantities were never reserved in this process.
+ */
+public record ConfirmedOrder(long orderId, Map<Long, Integer> lines, boolean reservedHere) {
+}
@@ -0,0 +1,45 @@
+package com.github.alideweb.stuffshop.modules.inventory;
+
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.exceptions.ProductNotFoundException;
+import com.github.alideweb.stuffshop.modules.inventory.dto.RestockRequestDto;
+import com.github.alideweb.stuffshop.modules.inventory.dto.StockDto;
+import com.github.alideweb.stuffshop.modules.product.CatalogIndex;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/inventory")
+@RequiredArgsConstructor
+@Tag(name = "Inventory administration", description = "Admin only stock operations")
+public class InventoryAdminController {
+    private final StockCounters stockCounters;
+    private final CatalogIndex catalogIndex;
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<ApiResponse<StockDto>> get(@PathVariable Long productId) {
+        return ok("stock fetched successfully", productId);
+    }
+
+    @PostMapping("/{productId}/restock")
+    public ResponseEntity<ApiResponse<StockDto>> restock(@PathVariable Long productId, @Valid @RequestBody RestockRequestDto request) {
+        if (catalogIndex.find(productId).isEmpty()) throw new ProductNotFoundException(productId);
+
+        stockCounters.restock(productId, request.getQuantity());
+        return ok("stock updated successfully", productId);
+    }
+
+    private ResponseEntity<ApiResponse<StockDto>> ok(String message, Long productId) {
+        var response = ApiResponse.<StockDto>builder()
+                .message(message)
+                .status(HttpStatus.OK.value())
+                .data(new StockDto(productId, stockCounters.available(productId)))
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
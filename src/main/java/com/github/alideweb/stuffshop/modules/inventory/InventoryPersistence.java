@@ -0,0 +1,113 @@
+package com.github.alideweb.stuffshop.modules.inventory;
+
+import com.github.alideweb.stuffshop.exceptions.OutOfStockException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+@Component
+@RequiredArgsConstructor
+public class InventoryPersistence {
+    private static final String UNAPPLIED_QUANTITY = """
+            select coalesce(sum(oi.quantity), 0)
+            from order_items oi
+            join orders o on o.id = oi.order_id
+            where oi.product_id = i.product_id and o.status = 'CONFIRMED' and o.stock_applied = false""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    public record StockRow(long available, long version, long unapplied) {
+        static final StockRow MISSING = new StockRow(0, -1, 0);
+    }
+
+    public StockRow load(long productId) {
+        List<StockRow> rows = jdbcTemplate.query(
+                "select i.available, i.version, (" + UNAPPLIED_QUANTITY + ") from inventory i where i.product_id = ?",
+                (rs, rowNum) -> new StockRow(rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+                productId);
+
+        return rows.isEmpty() ? StockRow.MISSING : rows.get(0);
+    }
+
+    public List<ConfirmedOrder> loadUnapplied() {
+        Map<Long, Map<Long, Integer>> orders = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                        select o.id, oi.product_id, oi.quantity
+                        from orders o
+                        join order_items oi on oi.order_id = o.id
+                        where o.status = 'CONFIRMED' and o.stock_applied = false
+                        order by o.id""",
+                (RowCallbackHandler) rs -> orders.computeIfAbsent(rs.getLong(1), id -> new HashMap<>())
+                        .merge(rs.getLong(2), rs.getInt(3), Integer::sum));
+
+        List<ConfirmedOrder> confirmed = new ArrayList<>(orders.size());
+        orders.forEach((id, lines) -> confirmed.add(new ConfirmedOrder(id, lines, false)));
+        return confirmed;
+    }
+
+    /**
+     * Runs {@code markConfirmed} if the table covers every line on top of the confirmed orders not applied yet, and
+     * returns its result. The stock rows stay locked until it commits, taken in product order so that two confirmations
+     * cannot deadlock; instances confirming the same product therefore see each other's orders.
+     */
+    boolean confirm(Map<Long, Integer> lines, BooleanSupplier markConfirmed) throws OutOfStockException {
+        return Boolean.TRUE.equals(new TransactionTemplate(transactionManager).execute(status -> {
+            for (long productId : new TreeSet<>(lines.keySet())) {
+                jdbcTemplate.queryForList("select product_id from inventory where product_id = ? for update", productId);
+
+                var row = load(productId);
+                if (row.available() - row.unapplied() < lines.get(productId)) throw new OutOfStockException(productId);
+            }
+            return markConfirmed.getAsBoolean();
+        }));
+    }
+
+    void apply(List<ConfirmedOrder> orders, Map<Long, Long> decrements, Map<Long, Long> versions) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Object[]> orderArgs = orders.stream().map(order -> new Object[]{order.orderId()}).toList();
+            int[] marked = jdbcTemplate.batchUpdate(
+                    "update orders set stock_applied = true where id = ? and status = 'CONFIRMED' and stock_applied = false",
+                    orderArgs);
+
+            Set<Long> alreadyApplied = new HashSet<>();
+            for (int i = 0; i < marked.length; i++) {
+                if (marked[i] == 0) alreadyApplied.add(orders.get(i).orderId());
+            }
+            if (!alreadyApplied.isEmpty()) throw new StaleInventoryException(Set.of(), alreadyApplied);
+
+            List<Long> productIds = new ArrayList<>(decrements.keySet());
+            List<Object[]> stockArgs = productIds.stream()
+                    .map(id -> new Object[]{decrements.get(id), id, versions.get(id), decrements.get(id)})
+                    .toList();
+            int[] updated = jdbcTemplate.batchUpdate(
+                    "update inventory set available = available - ?, version = version + 1 " +
+                            "where product_id = ? and version = ? and available >= ?",
+                    stockArgs);
+
+            Set<Long> stale = new HashSet<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) stale.add(productIds.get(i));
+            }
+            if (!stale.isEmpty()) throw new StaleInventoryException(stale, Set.of());
+        });
+    }
+
+    void restock(long productId, long quantity) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int updated = jdbcTemplate.update(
+                    "update inventory set available = available + ?, version = version + 1 where product_id = ?",
+                    quantity, productId);
+
+            if (updated == 0) {
+                jdbcTemplate.update("insert into inventory (product_id, available, version) values (?, ?, 0)", productId, quantity);
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.alideweb.stuffshop.modules.inventory;
+
+import java.util.Set;
+
+/**
+ * Rolls back an inventory flush when another writer got there first: either a stock row's version moved on, or an
+ * order was already applied by another instance.
+ */
+class StaleInventoryException extends RuntimeException {
+    private final Set<Long> staleProducts;
+    private final Set<Long> appliedOrders;
+
+    StaleInventoryException(Set<Long> staleProducts, Set<Long> appliedOrders) {
+        super("inventory changed concurrently", null, false, false);
+        this.staleProducts = staleProducts;
+        this.appliedOrders = appliedOrders;
+    }
+
+    Set<Long> getStaleProducts() {
+        return staleProducts;
+    }
+
+    Set<Long> getAppliedOrders() {
+        return appliedOrders;
+    }
+}
@@ -0,0 +1,319 @@
+package com.github.alideweb.stuffshop.modules.inventory;
+
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.exceptions.OutOfStockException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Per-product stock counters. Reservations are a CAS on the product's {@code available} counter and never touch the
+ * database. The counters only learn about other instances' orders on a refresh, so confirming an order checks the
+ * stock table, with the product rows locked, before it is stored; its decrement is then queued and written in a
+ * batch, guarded by the stock row's version and an {@code available >= delta} check so the table can never go
+ * negative.
+ * <p>
+ * Each counter starts from {@code base} = stock in the table minus every confirmed order not yet applied to it, and
+ * {@code available} = {@code base} minus what this process has reserved or confirmed since. Applying a confirmed order
+ * lowers the table and the unapplied sum by the same amount, so {@code base} only moves when another writer touches
+ * the row or another instance confirms an order; on a version conflict or a confirmation the table refuses it is
+ * re-read and the difference is added to {@code available}.
+ * <p>
+ * Orders on a product that conflicted are applied one at a time in the next flush, so one order the table cannot take
+ * does not hold back the rest. An order that still fails after the refresh lost its stock to a writer outside the
+ * counters and is parked instead of retried: it is logged, counted in {@code inventory.unappliable} and queued again
+ * on restock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockCounters implements MeterBinder {
+    private final InventoryPersistence persistence;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Value("${inventory.flushBatchSize:1000}")
+    private int flushBatchSize;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final Queue<ConfirmedOrder> unflushed = new ConcurrentLinkedQueue<>();
+    private final Set<Long> contested = new HashSet<>();
+    private final List<ConfirmedOrder> parked = new CopyOnWriteArrayList<>();
+    private final AtomicLong unflushedCount = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        try {
+            var recovered = persistence.loadUnapplied();
+            recovered.forEach(this::confirm);
+            if (!recovered.isEmpty()) log.info("Recovered {} confirmed orders with unapplied stock", recovered.size());
+        } catch (Exception e) {
+            log.warn("Could not recover unapplied orders: {}", e.getMessage());
+        }
+    }
+
+    public long available(long productId) {
+        return counter(productId).available.get();
+    }
+
+    /**
+     * Reserves every line or none of them.
+     */
+    public void reserve(Map<Long, Integer> lines) throws OutOfStockException {
+        List<Map.Entry<Long, Integer>> taken = new ArrayList<>(lines.size());
+
+        for (var line : lines.entrySet()) {
+            if (!counter(line.getKey()).tryTake(line.getValue())) {
+                taken.forEach(entry -> counter(entry.getKey()).available.addAndGet(entry.getValue()));
+                rejected.increment();
+                throw new OutOfStockException(line.getKey());
+            }
+            taken.add(line);
+        }
+
+        reserved.increment();
+    }
+
+    public void release(Map<Long, Integer> lines) {
+        lines.forEach((productId, quantity) -> counter(productId).available.addAndGet(quantity));
+    }
+
+    /**
+     * Stores a reserved order as confirmed through {@code markConfirmed}, which runs in the transaction that checked the
+     * stock table, and queues its decrement if it returns true. When the table cannot cover the order, another instance
+     * confirmed the stock this one reserved: the short product's counter is refreshed and {@link OutOfStockException}
+     * thrown, leaving the reservation for the caller to release.
+     */
+    public boolean confirm(ConfirmedOrder order, BooleanSupplier markConfirmed) throws OutOfStockException {
+        try {
+            if (!persistence.confirm(order.lines(), markConfirmed)) return false;
+        } catch (OutOfStockException e) {
+            flushLock.lock();
+            try {
+                Map<Long, Long> reservedHere = reservedHereUnflushed(List.of());
+                order.lines().keySet().forEach(productId -> refresh(productId, reservedHere));
+            } finally {
+                flushLock.unlock();
+            }
+            throw e;
+        }
+
+        confirm(order);
+        return true;
+    }
+
+    /**
+     * Queues the stock decrement of an order that is already stored as confirmed.
+     */
+    public void confirm(ConfirmedOrder order) {
+        unflushed.add(order);
+        unflushedCount.incrementAndGet();
+    }
+
+    public void restock(long productId, long quantity) {
+        flushLock.lock();
+        try {
+            persistence.restock(productId, quantity);
+
+            if (counters.containsKey(productId)) refresh(productId, reservedHereUnflushed(List.of()));
+
+            List<ConfirmedOrder> unparked = new ArrayList<>();
+            parked.removeIf(order -> order.lines().containsKey(productId) && unparked.add(order));
+            requeue(unparked);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.flushMillis:500}")
+    public void flush() {
+        if (unflushed.isEmpty()) return;
+
+        long start = System.nanoTime();
+        flushLock.lock();
+        try {
+            List<ConfirmedOrder> batch = new ArrayList<>(flushBatchSize);
+            ConfirmedOrder order;
+            while (batch.size() < flushBatchSize && (order = unflushed.poll()) != null) {
+                batch.add(order);
+                unflushedCount.decrementAndGet();
+            }
+
+            List<ConfirmedOrder> isolated = new ArrayList<>();
+            batch.removeIf(o -> !Collections.disjoint(o.lines().keySet(), contested) && isolated.add(o));
+
+            try {
+                if (!batch.isEmpty()) apply(batch);
+            } catch (StaleInventoryException e) {
+                log.debug("Inventory flush conflicted on products {} and orders {}", e.getStaleProducts(), e.getAppliedOrders());
+
+                Set<Long> toRefresh = new HashSet<>(e.getStaleProducts());
+                batch.removeIf(o -> {
+                    if (!e.getAppliedOrders().contains(o.orderId())) return false;
+                    toRefresh.addAll(o.lines().keySet());
+                    return true;
+                });
+                requeue(batch);
+                contested.addAll(e.getStaleProducts());
+
+                Map<Long, Long> reservedHere = reservedHereUnflushed(isolated);
+                toRefresh.forEach(productId -> refresh(productId, reservedHere));
+            } catch (Exception e) {
+                log.warn("Could not flush {} inventory decrements, retrying: {}", batch.size() + isolated.size(), e.getMessage());
+                requeue(batch);
+                requeue(isolated);
+                return;
+            }
+
+            applyOneByOne(isolated);
+        } finally {
+            flushLock.unlock();
+            pipelineMetrics.getInventoryFlush().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("inventory.reservations", reserved, LongAdder::sum)
+                .tag("outcome", "reserved")
+                .register(registry);
+        FunctionCounter.builder("inventory.reservations", rejected, LongAdder::sum)
+                .tag("outcome", "rejected")
+                .register(registry);
+        Gauge.builder("inventory.unflushed", unflushedCount, AtomicLong::get)
+                .description("Confirmed orders whose stock decrement is not in the database yet")
+                .register(registry);
+        Gauge.builder("inventory.unappliable", parked, List::size)
+                .description("Confirmed orders parked because the stock table cannot take their decrement")
+                .register(registry);
+    }
+
+    private Counter counter(long productId) {
+        return counters.computeIfAbsent(productId, id -> {
+            var row = persistence.load(id);
+            return new Counter(row.available() - row.unapplied(), row.version());
+        });
+    }
+
+    private void apply(List<ConfirmedOrder> orders) {
+        Map<Long, Long> decrements = new HashMap<>();
+        orders.forEach(o -> o.lines().forEach((productId, quantity) -> decrements.merge(productId, (long) quantity, Long::sum)));
+
+        Map<Long, Long> versions = new HashMap<>();
+        decrements.keySet().forEach(productId -> versions.put(productId, counter(productId).version));
+
+        persistence.apply(orders, decrements, versions);
+        decrements.keySet().forEach(productId -> counter(productId).version++);
+
+        // A refresh adds orders reserved here back to base until they are applied, so base drops once they are
+        for (ConfirmedOrder order : orders) {
+            if (order.reservedHere()) order.lines().forEach((productId, quantity) -> counter(productId).base -= quantity);
+        }
+    }
+
+    /**
+     * Applies orders on contested products separately. Their counters were refreshed when the conflict was seen, so a
+     * second conflict means the row holds less stock than the order confirmed.
+     */
+    private void applyOneByOne(List<ConfirmedOrder> orders) {
+        for (int i = 0; i < orders.size(); i++) {
+            var order = orders.get(i);
+            contested.removeAll(order.lines().keySet());
+
+            try {
+                apply(List.of(order));
+            } catch (StaleInventoryException e) {
+                boolean unappliable = !e.getAppliedOrders().contains(order.orderId());
+                if (unappliable) parked.add(order);
+
+                Map<Long, Long> reservedHere = reservedHereUnflushed(orders.subList(i + 1, orders.size()));
+                order.lines().keySet().forEach(productId -> refresh(productId, reservedHere));
+                if (!unappliable) continue;
+
+                log.error("Order {} cannot be applied, products {} have less stock than it confirmed; parked until restocked",
+                        order.orderId(), e.getStaleProducts());
+            } catch (Exception e) {
+                log.warn("Could not flush {} inventory decrements, retrying: {}", orders.size() - i, e.getMessage());
+                requeue(orders.subList(i, orders.size()));
+                return;
+            }
+        }
+    }
+
+    private void requeue(List<ConfirmedOrder> batch) {
+        unflushed.addAll(batch);
+        unflushedCount.addAndGet(batch.size());
+    }
+
+    /**
+     * Quantities per product that this process reserved and confirmed but has not written yet. They are part of the
+     * unapplied sum in the database and already subtracted from {@code available}, so a refresh must not count them
+     * twice. Besides the queue, that covers parked orders and those the current flush holds in {@code inFlight}.
+     */
+    private Map<Long, Long> reservedHereUnflushed(List<ConfirmedOrder> inFlight) {
+        Map<Long, Long> quantities = new HashMap<>();
+        for (var orders : List.of(unflushed, parked, inFlight)) {
+            for (ConfirmedOrder order : orders) {
+                if (order.reservedHere()) order.lines().forEach((id, q) -> quantities.merge(id, (long) q, Long::sum));
+            }
+        }
+        return quantities;
+    }
+
+    private void refresh(long productId, Map<Long, Long> reservedHere) {
+        var counter = counter(productId);
+        var row = persistence.load(productId);
+        long base = row.available() - (row.unapplied() - reservedHere.getOrDefault(productId, 0L));
+
+        counter.available.addAndGet(base - counter.base);
+        counter.base = base;
+        counter.version = row.version();
+
+        if (row.available() < row.unapplied()) {
+            log.error("Product {} has {} confirmed but unapplied units and only {} in stock", productId, row.unapplied(), row.available());
+        }
+    }
+
+    private static final class Counter {
+        private final AtomicLong available;
+        private volatile long base;
+        private volatile long version;
+
+        private Counter(long base, long version) {
+            this.available = new AtomicLong(base);
+            this.base = base;
+            this.version = version;
+        }
+
+        private boolean tryTake(int quantity) {
+            long current;
+            do {
+                current = available.get();
+                if (current < quantity) return false;
+            } while (!available.compareAndSet(current, current - quantity));
+
+            return true;
+        }
+    }
+}
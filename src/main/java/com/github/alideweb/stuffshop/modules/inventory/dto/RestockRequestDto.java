@@ -0,0 +1,14 @@
+package com.github.alideweb.stuffshop.modules.inventory.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class RestockRequestDto {
+    @NotNull
+    @Min(1)
+    @Max(1_000_000)
+    private Long quantity;
+}
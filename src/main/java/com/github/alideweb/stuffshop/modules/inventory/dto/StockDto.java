@@ -0,0 +1,21 @@
+package com.github.alideweb.stuffshop.modules.inventory.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.alideweb.stuffshop.common.json.JsonFields;
+import com.github.alideweb.stuffshop.common.json.JsonWritable;
+
+import java.io.IOException;
+
+public record StockDto(long productId, long available) implements JsonWritable {
+    private static final SerializedString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializedString AVAILABLE = new SerializedString("available");
+
+    @Override
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.number(generator, PRODUCT_ID, productId);
+        JsonFields.number(generator, AVAILABLE, available);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.alideweb.stuffshop.modules.jwt;
+
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+public record JwtClaims(String username, UserRoles role, Instant issuedAt, Instant expiresAt) {
+    static JwtClaims from(Claims claims) {
+        Object role = claims.get("role");
+
+        return new JwtClaims(
+                claims.getSubject(),
+                role == null ? null : UserRoles.getRole(role.toString()),
+                issuedAt(claims.get(Claims.ISSUED_AT)),
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    /**
+     * JJWT truncates {@code iat} to whole seconds, which would drop the milliseconds {@link TokenIssuer} writes.
+     */
+    private static Instant issuedAt(Object iat) {
+        if (!(iat instanceof Number seconds)) return null;
+        return Instant.ofEpochMilli(Math.round(seconds.doubleValue() * 1000));
+    }
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(Instant.now());
+    }
+}
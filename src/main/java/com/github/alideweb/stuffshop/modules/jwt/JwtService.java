@@ -1,10 +1,20 @@
 package com.github.alideweb.stuffshop.modules.jwt;
 
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
 import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
-import io.jsonwebtoken.Claims;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -12,85 +22,136 @@ import org.springframework.stereotype.Service;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Objects;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Service
-public class JwtService {
+@RequiredArgsConstructor
+public class JwtService implements MeterBinder {
+    private final PipelineMetrics pipelineMetrics;
+
     @Value("${jwt.key}")
     private String secretKey;
 
     @Value("${jwt.expiresAtInHour}")
     private int expiresAtInHour;
 
+    @Value("${jwt.cache.maxSize:100000}")
+    private long cacheMaxSize;
+
+    @Value("${jwt.issuer.maxPooledMacs:64}")
+    private int maxPooledMacs;
+
+    private Key signingKey;
+    private JwtParser parser;
+    private MessageDigest digestPrototype;
+    private Cache<String, JwtClaims> claimsCache;
+    private TokenIssuer tokenIssuer;
+
+    @PostConstruct
+    public void init() throws NoSuchAlgorithmException {
+        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
+        signingKey = new SecretKeySpec(keyBytes, SignatureAlgorithm.HS256.getJcaName());
+        tokenIssuer = new TokenIssuer(keyBytes, Duration.ofHours(expiresAtInHour).toSeconds(), maxPooledMacs);
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        digestPrototype = MessageDigest.getInstance("SHA-256");
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new ClaimsExpiry())
+                .recordStats()
+                .build();
+    }
+
     public String generateJwtToken(String username, UserRoles role) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("username", username);
-        claims.put("role", role);
-
-        var now = new Date(System.currentTimeMillis());
-        var expiresAt = new Date(System.currentTimeMillis() + ((long) expiresAtInHour * 60 * 60 * 1000));
-
-
-        return Jwts
-                .builder()
-                .setClaims(claims)
-                .setSubject(username)
-                .setIssuedAt(now)
-                .setExpiration(expiresAt)
-                .signWith(getSecretKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return tokenIssuer.issue(username, role);
+    }
+
+    public JwtClaims parseToken(String token) {
+        long start = System.nanoTime();
+        try {
+            String key = digest(token);
+
+            JwtClaims claims = claimsCache.getIfPresent(key);
+            if (claims == null) {
+                claims = verify(token);
+                claimsCache.put(key, claims);
+            }
+
+            return claims;
+        } finally {
+            pipelineMetrics.getTokenParse().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
     public boolean isJwtTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        final UserRoles userRole = extractUserRole(token);
+        return isJwtTokenValid(parseToken(token), userDetails);
+    }
 
+    public boolean isJwtTokenValid(JwtClaims claims, UserDetails userDetails) {
         String actualRole = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .map(role -> role.replace("ROLE_", ""))
                 .findFirst().orElse(null);
 
-        return Objects.equals(userName, userDetails.getUsername()) &&
-                Objects.equals(userRole.name(), actualRole) &&
-                !isTokenExpired(token);
+        return Objects.equals(claims.username(), userDetails.getUsername()) &&
+                claims.role() != null &&
+                Objects.equals(claims.role().name(), actualRole) &&
+                !claims.isExpired();
     }
 
     public String extractUserName(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).username();
     }
 
     public UserRoles extractUserRole(String token) {
-        String role = extractClaim(token, claims -> claims.get("role").toString());
-
-        return UserRoles.getRole(role);
+        return parseToken(token).role();
     }
 
-    private Key getSecretKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-
-        return new SecretKeySpec(keyBytes, SignatureAlgorithm.HS256.getJcaName());
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, claimsCache, "jwt.claims");
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private JwtClaims verify(String token) {
+        long start = System.nanoTime();
+        try {
+            return JwtClaims.from(parser.parseClaimsJws(token).getBody());
+        } finally {
+            pipelineMetrics.getTokenVerify().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+    private String digest(String token) {
+        MessageDigest md;
+        try {
+            md = (MessageDigest) digestPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
+        return new String(md.digest(token.getBytes(StandardCharsets.US_ASCII)), StandardCharsets.ISO_8859_1);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSecretKey())
-                .build().parseClaimsJws(token).getBody();
+    private static class ClaimsExpiry implements Expiry<String, JwtClaims> {
+        @Override
+        public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), claims.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
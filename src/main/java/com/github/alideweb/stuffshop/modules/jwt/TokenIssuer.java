@@ -0,0 +1,232 @@
+package com.github.alideweb.stuffshop.modules.jwt;
+
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * HS256 token issuer for the fixed claim set this application signs. The Base64URL header is encoded once, claims are
+ * written straight into a byte buffer, and the HMAC comes from a pool of keyed {@link Mac} instances that are only
+ * ever used by the thread that borrowed them. Tokens parse with the JJWT parser in {@link JwtService}; claim order
+ * differs from what JJWT would write, which the format does not care about. {@code iat} carries milliseconds as a
+ * fractional NumericDate, so a token issued right after a revocation is not mistaken for one issued before it.
+ */
+class TokenIssuer {
+    private static final byte[] HEADER = ascii("eyJhbGciOiJIUzI1NiJ9.");
+    private static final byte[] USERNAME = ascii("{\"username\":\"");
+    private static final byte[] ROLE = ascii("\",\"role\":\"");
+    private static final byte[] SUBJECT = ascii("\",\"sub\":\"");
+    private static final byte[] ISSUED_AT = ascii("\",\"iat\":");
+    private static final byte[] EXPIRES_AT = ascii(",\"exp\":");
+    private static final byte[] BASE64_URL = ascii("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private final Mac prototype;
+    private final long ttlSeconds;
+    private final int maxPooled;
+    private final Queue<Signer> pool = new ConcurrentLinkedQueue<>();
+
+    TokenIssuer(byte[] key, long ttlSeconds, int maxPooled) {
+        try {
+            prototype = Mac.getInstance("HmacSHA256");
+            prototype.init(new SecretKeySpec(key, "HmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+        this.ttlSeconds = ttlSeconds;
+        this.maxPooled = maxPooled;
+    }
+
+    String issue(String username, UserRoles role) {
+        long now = Instant.now().toEpochMilli();
+
+        var signer = borrow();
+        try {
+            return signer.sign(username, role, now, now / 1000 + ttlSeconds);
+        } finally {
+            release(signer);
+        }
+    }
+
+    private Signer borrow() {
+        var signer = pool.poll();
+        return signer != null ? signer : new Signer(newMac());
+    }
+
+    private void release(Signer signer) {
+        if (pool.size() < maxPooled) pool.offer(signer);
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 implementation is not cloneable", e);
+        }
+    }
+
+    private static final class Signer {
+        private final Mac mac;
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private byte[] json = new byte[256];
+        private byte[] token = new byte[512];
+
+        private Signer(Mac mac) {
+            this.mac = mac;
+        }
+
+        private String sign(String username, UserRoles role, long issuedAtMillis, long expiresAt) {
+            int jsonLength = claims(username, role, issuedAtMillis, expiresAt);
+
+            int capacity = HEADER.length + base64Length(jsonLength) + 1 + base64Length(SIGNATURE_LENGTH);
+            if (token.length < capacity) token = new byte[capacity];
+
+            System.arraycopy(HEADER, 0, token, 0, HEADER.length);
+            int pos = base64Url(json, jsonLength, token, HEADER.length);
+
+            mac.update(token, 0, pos);
+            try {
+                mac.doFinal(signature, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+
+            token[pos++] = '.';
+            pos = base64Url(signature, SIGNATURE_LENGTH, token, pos);
+
+            return new String(token, 0, pos, StandardCharsets.ISO_8859_1);
+        }
+
+        private int claims(String username, UserRoles role, long issuedAtMillis, long expiresAt) {
+            int capacity = 128 + username.length() * 12;
+            if (json.length < capacity) json = new byte[capacity];
+
+            int pos = copy(USERNAME, json, 0);
+            pos = escape(username, json, pos);
+            pos = copy(ROLE, json, pos);
+            pos = escape(role.name(), json, pos);
+            pos = copy(SUBJECT, json, pos);
+            pos = escape(username, json, pos);
+            pos = copy(ISSUED_AT, json, pos);
+            pos = number(issuedAtMillis / 1000, json, pos);
+            pos = fraction((int) (issuedAtMillis % 1000), json, pos);
+            pos = copy(EXPIRES_AT, json, pos);
+            pos = number(expiresAt, json, pos);
+            json[pos++] = '}';
+
+            return pos;
+        }
+    }
+
+    private static int base64Length(int length) {
+        return (length * 4 + 2) / 3;
+    }
+
+    private static int base64Url(byte[] source, int length, byte[] target, int pos) {
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8 | (source[i + 2] & 0xFF);
+            target[pos++] = BASE64_URL[bits >>> 18];
+            target[pos++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            target[pos++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            target[pos++] = BASE64_URL[bits & 0x3F];
+        }
+
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (source[i] & 0xFF) << 16;
+            target[pos++] = BASE64_URL[bits >>> 18];
+            target[pos++] = BASE64_URL[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8;
+            target[pos++] = BASE64_URL[bits >>> 18];
+            target[pos++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            target[pos++] = BASE64_URL[(bits >>> 6) & 0x3F];
+        }
+
+        return pos;
+    }
+
+    private static int number(long value, byte[] target, int pos) {
+        if (value < 0) {
+            target[pos++] = '-';
+            value = -value;
+        }
+
+        int start = pos;
+        do {
+            target[pos++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            byte swap = target[i];
+            target[i] = target[j];
+            target[j] = swap;
+        }
+
+        return pos;
+    }
+
+    private static int fraction(int millis, byte[] target, int pos) {
+        target[pos++] = '.';
+        target[pos++] = (byte) ('0' + millis / 100);
+        target[pos++] = (byte) ('0' + millis / 10 % 10);
+        target[pos++] = (byte) ('0' + millis % 10);
+        return pos;
+    }
+
+    private static int escape(String value, byte[] target, int pos) {
+        int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                target[pos++] = '\\';
+                target[pos++] = (byte) c;
+            } else if (c < 0x20) {
+                target[pos++] = '\\';
+                target[pos++] = 'u';
+                target[pos++] = '0';
+                target[pos++] = '0';
+                target[pos++] = HEX[c >> 4];
+                target[pos++] = HEX[c & 0xF];
+            } else if (c < 0x80) {
+                target[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                target[pos++] = (byte) (0xC0 | (c >> 6));
+                target[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                target[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                target[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                target[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                target[pos++] = (byte) (0xE0 | (c >> 12));
+                target[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                target[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        return pos;
+    }
+
+    private static int copy(byte[] source, byte[] target, int pos) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.alideweb.stuffshop.modules.jwt;
+
+import com.github.alideweb.stuffshop.modules.user.UserRepository;
+import com.github.alideweb.stuffshop.modules.user.entity.TokenRevocation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationRegistry {
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final Map<String, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiresAtInHour}")
+    private int expiresAtInHour;
+
+    private volatile Instant lastSeen;
+
+    public boolean isRevoked(JwtClaims claims) {
+        Instant revokedAt = revokedBefore.get(claims.username());
+        if (revokedAt == null) return false;
+
+        return claims.issuedAt() == null || claims.issuedAt().toEpochMilli() <= revokedAt.toEpochMilli();
+    }
+
+    public void revoke(String username, Instant revokedAt) {
+        revokedBefore.merge(username, revokedAt, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    public void resync() {
+        lastSeen = null;
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocations.refreshMillis:5000}")
+    public synchronized void refresh() {
+        Instant horizon = Instant.now().minus(Duration.ofHours(expiresAtInHour));
+        Instant since = lastSeen == null ? horizon : lastSeen.minus(REFRESH_OVERLAP);
+
+        try {
+            Instant newest = lastSeen;
+            for (TokenRevocation revocation : userRepository.findTokenRevocationsSince(since)) {
+                revoke(revocation.getUsername(), revocation.getTokensRevokedAt());
+                if (newest == null || revocation.getTokensRevokedAt().isAfter(newest)) {
+                    newest = revocation.getTokensRevokedAt();
+                }
+            }
+            lastSeen = newest == null ? horizon : newest;
+
+            revokedBefore.values().removeIf(revokedAt -> revokedAt.isBefore(horizon));
+        } catch (Exception e) {
+            log.warn("Could not refresh token revocations: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.alideweb.stuffshop.modules.order;
+
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.modules.order.dto.OrderDto;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/orders")
+@RequiredArgsConstructor
+@Tag(name = "Orders", description = "Checkout and orders of the authenticated user")
+public class OrderController {
+    private final OrderService orderService;
+
+    @PostMapping("/checkout")
+    public ResponseEntity<ApiResponse<OrderDto>> checkout(@AuthenticationPrincipal UserDetails principal) {
+        var order = orderService.checkout(principal.getUsername());
+
+        var response = ApiResponse.<OrderDto>builder()
+                .message("stock reserved, confirm the order before it expires")
+                .status(HttpStatus.CREATED.value())
+                .data(order)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<ApiResponse<OrderDto>> confirm(@AuthenticationPrincipal UserDetails principal, @PathVariable Long id) {
+        return ok("order confirmed successfully", orderService.confirm(principal.getUsername(), id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ApiResponse<OrderDto>> cancel(@AuthenticationPrincipal UserDetails principal, @PathVariable Long id) {
+        return ok("order cancelled successfully", orderService.cancel(principal.getUsername(), id));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<OrderDto>> getOrder(@AuthenticationPrincipal UserDetails principal, @PathVariable Long id) {
+        return ok("order fetched successfully", orderService.getOrder(principal.getUsername(), id));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<OrderDto>>> getOrders(@AuthenticationPrincipal UserDetails principal) {
+        var response = ApiResponse.<List<OrderDto>>builder()
+                .message("orders fetched successfully")
+                .status(HttpStatus.OK.value())
+                .data(orderService.getOrders(principal.getUsername()))
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<ApiResponse<OrderDto>> ok(String message, OrderDto order) {
+        var response = ApiResponse.<OrderDto>builder()
+                .message(message)
+                .status(HttpStatus.OK.value())
+                .data(order)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.alideweb.stuffshop.modules.order;
+
+import com.github.alideweb.stuffshop.modules.order.entity.OrderEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
+    @EntityGraph(attributePaths = "items")
+    Optional<OrderEntity> findByIdAndUsername(Long id, String username);
+
+    @EntityGraph(attributePaths = "items")
+    List<OrderEntity> findTop50ByUsernameOrderByIdDesc(String username);
+
+    @Query("select o.updatedAt from OrderEntity o where o.id = :id and o.username = :username")
+    Optional<LocalDateTime> findUpdatedAt(@Param("id") Long id, @Param("username") String username);
+
+    @Modifying
+    @Transactional
+    @Query("update OrderEntity o set o.status = 'CONFIRMED', o.updatedAt = local datetime " +
+            "where o.id = :id and o.status = 'PENDING' and o.expiresAt > :now")
+    int confirm(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("update OrderEntity o set o.status = 'CANCELLED', o.updatedAt = local datetime " +
+            "where o.id = :id and o.status = 'PENDING'")
+    int cancel(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("update OrderEntity o set o.status = 'EXPIRED', o.updatedAt = local datetime " +
+            "where o.status = 'PENDING' and o.expiresAt <= :now")
+    int expirePending(@Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("update OrderEntity o set o.status = 'EXPIRED', o.updatedAt = local datetime " +
+            "where o.id = :id and o.status = 'PENDING'")
+    int expire(@Param("id") Long id);
+}
@@ -0,0 +1,141 @@
+package com.github.alideweb.stuffshop.modules.order;
+
+import com.github.alideweb.stuffshop.exceptions.*;
+import com.github.alideweb.stuffshop.modules.cart.CartService;
+import com.github.alideweb.stuffshop.modules.cart.dto.CartItemDto;
+import com.github.alideweb.stuffshop.modules.inventory.ConfirmedOrder;
+import com.github.alideweb.stuffshop.modules.inventory.StockCounters;
+import com.github.alideweb.stuffshop.modules.order.dto.OrderDto;
+import com.github.alideweb.stuffshop.modules.order.entity.OrderEntity;
+import com.github.alideweb.stuffshop.modules.order.entity.OrderItemEntity;
+import com.github.alideweb.stuffshop.modules.order.enums.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderService {
+    private final OrderRepository orderRepository;
+    private final CartService cartService;
+    private final StockCounters stockCounters;
+    private final Reservations reservations;
+
+    @Value("${orders.reservationTtlSeconds:600}")
+    private long reservationTtlSeconds;
+
+    public OrderDto checkout(String username) throws EmptyCartException, OutOfStockException {
+        var cart = cartService.getCart(username);
+        if (cart.items().isEmpty()) throw new EmptyCartException();
+
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        cart.items().forEach(item -> lines.put(item.productId(), item.quantity()));
+        stockCounters.reserve(lines);
+
+        try {
+            var order = new OrderEntity();
+            order.setUsername(username);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotal(cart.total());
+            order.setExpiresAt(Instant.now().plus(Duration.ofSeconds(reservationTtlSeconds)));
+            for (CartItemDto line : cart.items()) {
+                var item = new OrderItemEntity();
+                item.setProductId(line.productId());
+                item.setQuantity(line.quantity());
+                item.setPrice(line.price());
+                order.addItem(item);
+            }
+
+            var saved = orderRepository.save(order);
+            reservations.put(new Reservations.Reservation(saved.getId(), lines, saved.getExpiresAt()));
+
+            return OrderDto.from(saved);
+        } catch (RuntimeException e) {
+            stockCounters.release(lines);
+            throw e;
+        }
+    }
+
+    public OrderDto confirm(String username, Long id) throws OrderNotFoundException, ReservationExpiredException, OutOfStockException {
+        var order = find(username, id);
+        if (order.getStatus() == OrderStatus.CONFIRMED) return OrderDto.from(order);
+        if (order.getStatus() != OrderStatus.PENDING) throw new ReservationExpiredException(id);
+
+        var reservation = reservations.take(id);
+        if (reservation == null) {
+            orderRepository.expire(id);
+            throw new ReservationExpiredException(id);
+        }
+
+        boolean confirmed;
+        try {
+            confirmed = stockCounters.confirm(new ConfirmedOrder(id, reservation.lines(), true),
+                    () -> orderRepository.confirm(id, Instant.now()) > 0);
+        } catch (OutOfStockException e) {
+            stockCounters.release(reservation.lines());
+            orderRepository.expire(id);
+            throw e;
+        }
+
+        if (!confirmed) {
+            stockCounters.release(reservation.lines());
+            orderRepository.expire(id);
+            throw new ReservationExpiredException(id);
+        }
+
+        cartService.clear(username);
+
+        order.setStatus(OrderStatus.CONFIRMED);
+        return OrderDto.from(order);
+    }
+
+    public OrderDto cancel(String username, Long id) throws OrderNotFoundException, OrderNotPendingException {
+        var order = find(username, id);
+        if (order.getStatus() == OrderStatus.CANCELLED || order.getStatus() == OrderStatus.EXPIRED) return OrderDto.from(order);
+        if (order.getStatus() != OrderStatus.PENDING || orderRepository.cancel(id) == 0) throw new OrderNotPendingException(id);
+
+        var reservation = reservations.take(id);
+        if (reservation != null) stockCounters.release(reservation.lines());
+
+        order.setStatus(OrderStatus.CANCELLED);
+        return OrderDto.from(order);
+    }
+
+    public OrderDto getOrder(String username, Long id) throws OrderNotFoundException {
+        return OrderDto.from(find(username, id));
+    }
+
+    public List<OrderDto> getOrders(String username) {
+        return orderRepository.findTop50ByUsernameOrderByIdDesc(username).stream()
+                .map(OrderDto::from)
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.sweepMillis:5000}")
+    public void expireReservations() {
+        var now = Instant.now();
+        var expired = reservations.takeExpired(now);
+        expired.forEach(reservation -> stockCounters.release(reservation.lines()));
+
+        try {
+            int updated = orderRepository.expirePending(now);
+            if (updated > 0) log.debug("Expired {} pending orders, released {} reservations", updated, expired.size());
+        } catch (Exception e) {
+            log.warn("Could not expire pending orders: {}", e.getMessage());
+        }
+    }
+
+    private OrderEntity find(String username, Long id) throws OrderNotFoundException {
+        return orderRepository.findByIdAndUsername(id, username)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+    }
+}
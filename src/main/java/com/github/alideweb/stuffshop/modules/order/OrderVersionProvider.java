@@ -0,0 +1,50 @@
+package com.github.alideweb.stuffshop.modules.order;
+
+import com.github.alideweb.stuffshop.common.etag.ResourceVersionProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versions a single order by its {@code updated_at}, which every status change bumps. Checking it is one primary key
+ * lookup instead of loading the order with its items and serializing them.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderVersionProvider implements ResourceVersionProvider {
+    private static final String PREFIX = "/orders/";
+
+    private final OrderRepository orderRepository;
+
+    @Override
+    public String version(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!path.startsWith(PREFIX)) return null;
+
+        long id;
+        try {
+            id = Long.parseLong(path.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) return null;
+
+        return orderRepository.findUpdatedAt(id, authentication.getName())
+                .map(updatedAt -> "order-" + updatedAt)
+                .orElse(null);
+    }
+
+    @Override
+    public CacheControl cacheControl() {
+        return CacheControl.noCache().cachePrivate();
+    }
+
+    @Override
+    public boolean isPerUser() {
+        return true;
+    }
+}
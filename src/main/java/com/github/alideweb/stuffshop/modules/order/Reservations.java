@@ -0,0 +1,51 @@
+package com.github.alideweb.stuffshop.modules.order;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock held for pending orders. Whoever removes an entry owns it, so a confirm racing the expiry sweep releases or
+ * keeps the stock exactly once.
+ */
+@Component
+public class Reservations implements MeterBinder {
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+
+    public record Reservation(long orderId, Map<Long, Integer> lines, Instant expiresAt) {
+    }
+
+    public void put(Reservation reservation) {
+        reservations.put(reservation.orderId(), reservation);
+    }
+
+    public Reservation take(long orderId) {
+        return reservations.remove(orderId);
+    }
+
+    public List<Reservation> takeExpired(Instant now) {
+        List<Reservation> expired = new ArrayList<>();
+        for (Reservation reservation : reservations.values()) {
+            if (!reservation.expiresAt().isAfter(now) && reservations.remove(reservation.orderId(), reservation)) {
+                expired.add(reservation);
+            }
+        }
+
+        return expired;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("orders.reservations.active", reservations, Map::size)
+                .description("Pending orders currently holding stock")
+                .register(registry);
+    }
+}
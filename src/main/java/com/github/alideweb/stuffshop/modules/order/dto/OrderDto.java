@@ -0,0 +1,42 @@
+package com.github.alideweb.stuffshop.modules.order.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.alideweb.stuffshop.common.json.JsonFields;
+import com.github.alideweb.stuffshop.common.json.JsonWritable;
+import com.github.alideweb.stuffshop.modules.order.entity.OrderEntity;
+import com.github.alideweb.stuffshop.modules.order.enums.OrderStatus;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+public record OrderDto(long id, OrderStatus status, BigDecimal total, Instant expiresAt, List<OrderItemDto> items) implements JsonWritable {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString TOTAL = new SerializedString("total");
+    private static final SerializedString EXPIRES_AT = new SerializedString("expiresAt");
+    private static final SerializedString ITEMS = new SerializedString("items");
+
+    public static OrderDto from(OrderEntity order) {
+        var items = order.getItems().stream()
+                .map(OrderItemDto::from)
+                .sorted(Comparator.comparingLong(OrderItemDto::productId))
+                .toList();
+
+        return new OrderDto(order.getId(), order.getStatus(), order.getTotal(), order.getExpiresAt(), items);
+    }
+
+    @Override
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.number(generator, ID, id);
+        JsonFields.string(generator, STATUS, status);
+        JsonFields.number(generator, TOTAL, total);
+        JsonFields.instant(generator, EXPIRES_AT, expiresAt);
+        JsonFields.array(generator, ITEMS, items);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.alideweb.stuffshop.modules.order.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.alideweb.stuffshop.common.json.JsonFields;
+import com.github.alideweb.stuffshop.common.json.JsonWritable;
+import com.github.alideweb.stuffshop.modules.order.entity.OrderItemEntity;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+public record OrderItemDto(long productId, int quantity, BigDecimal price) implements JsonWritable {
+    private static final SerializedString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString PRICE = new SerializedString("price");
+
+    public static OrderItemDto from(OrderItemEntity item) {
+        return new OrderItemDto(item.getProductId(), item.getQuantity(), item.getPrice());
+    }
+
+    @Override
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.number(generator, PRODUCT_ID, productId);
+        JsonFields.number(generator, QUANTITY, quantity);
+        JsonFields.number(generator, PRICE, price);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.alideweb.stuffshop.modules.order.entity;
+
+import com.github.alideweb.stuffshop.common.entity.BaseEntity;
+import com.github.alideweb.stuffshop.modules.order.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "orders")
+@NoArgsConstructor
+@Getter
+@Setter
+public class OrderEntity extends BaseEntity {
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "stock_applied", nullable = false)
+    private boolean stockApplied;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OrderItemEntity> items = new ArrayList<>();
+
+    public void addItem(OrderItemEntity item) {
+        item.setOrder(this);
+        items.add(item);
+    }
+}
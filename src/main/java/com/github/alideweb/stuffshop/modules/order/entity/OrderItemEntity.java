@@ -0,0 +1,29 @@
+package com.github.alideweb.stuffshop.modules.order.entity;
+
+import com.github.alideweb.stuffshop.common.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "order_items")
+@NoArgsConstructor
+@Getter
+@Setter
+public class OrderItemEntity extends BaseEntity {
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id", nullable = false)
+    private OrderEntity order;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal price;
+}
@@ -0,0 +1,8 @@
+package com.github.alideweb.stuffshop.modules.order.enums;
+
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    CANCELLED,
+    EXPIRED
+}
@@ -0,0 +1,175 @@
+package com.github.alideweb.stuffshop.modules.password;
+
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.exceptions.HashingUnavailableException;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+public class PasswordHashingService {
+    private static final long REJECTED_RETRY_MILLIS = 10;
+
+    private final PasswordEncoder passwordEncoder;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Value("${password.hashing.threads:0}")
+    private int threads;
+
+    @Value("${password.hashing.queueLimit:64}")
+    private int queueLimit;
+
+    @Value("${password.hashing.timeoutMillis:5000}")
+    private long timeoutMillis;
+
+    private ThreadPoolExecutor executor;
+    private Future<String> dummyHash;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        var counter = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit),
+                runnable -> {
+                    var thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        dummyHash = executor.submit(() -> passwordEncoder.encode(UUID.randomUUID().toString()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return run(pipelineMetrics.getPasswordHash(), () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Hashes in waves of one task per pool thread. When the queue is full the caller waits for room, up to the hashing
+     * timeout, rather than hashing on its own thread; the remaining tasks of a failed wave are cancelled.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        int wave = executor.getMaximumPoolSize();
+        Timer hashTimer = pipelineMetrics.getPasswordHash();
+
+        for (int start = 0; start < rawPasswords.size(); start += wave) {
+            var futures = new ArrayList<Future<String>>(wave);
+
+            try {
+                for (String raw : rawPasswords.subList(start, Math.min(start + wave, rawPasswords.size()))) {
+                    futures.add(submitWhenQueueHasRoom(() -> hashTimer.record(() -> passwordEncoder.encode(raw))));
+                }
+
+                for (Future<String> future : futures) {
+                    encoded.add(await(future));
+                }
+            } catch (RuntimeException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+
+        return encoded;
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(pipelineMetrics.getPasswordVerify(), () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Spends the same work as {@link #matches} for a user that does not exist, so response times do not tell unknown
+     * usernames apart from wrong passwords.
+     */
+    public void matchNothing(String rawPassword) {
+        String encoded = await(dummyHash);
+        matches(rawPassword, encoded);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueLimit() {
+        return queueLimit;
+    }
+
+    private <T> T run(Timer timer, Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                pipelineMetrics.getPasswordQueue().record(start - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new HashingUnavailableException();
+        }
+
+        return await(future);
+    }
+
+    private <T> Future<T> submitWhenQueueHasRoom(Callable<T> task) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                if (executor.isShutdown() || System.nanoTime() - deadline >= 0) throw new HashingUnavailableException();
+            }
+
+            try {
+                Thread.sleep(REJECTED_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HashingUnavailableException();
+            }
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops the task if it is still queued; BCrypt ignores interrupts, so a running one finishes anyway
+            future.cancel(true);
+            throw new HashingUnavailableException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new HashingUnavailableException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.exceptions.InvalidCursorException;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductPageDto;
+import com.github.alideweb.stuffshop.modules.product.enums.ProductSort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves catalog reads from an immutable {@link CatalogSnapshot}. Readers only dereference a volatile field; writers
+ * apply committed {@link ProductChangedEvent}s one at a time and publish a new snapshot. A periodic full reload
+ * picks up changes made by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIndex {
+    private final ProductRepository productRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Object writeLock = new Object();
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    private volatile boolean loaded;
+    private volatile long version;
+    private List<ProductChangedEvent> changesDuringReload;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    public Optional<ProductDto> find(long id) {
+        return snapshot.find(id);
+    }
+
+    public ProductPageDto page(String category, ProductSort sort, String cursor,
+                               BigDecimal minPrice, BigDecimal maxPrice, int limit) {
+        boolean byPrice = sort == ProductSort.PRICE;
+        var after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, byPrice);
+
+        List<ProductDto> items = snapshot.page(category, byPrice, after, minPrice, maxPrice, limit);
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            nextCursor = encodeCursor(items.get(limit - 1), byPrice);
+        }
+
+        return new ProductPageDto(items, nextCursor);
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (writeLock) {
+            if (changesDuringReload != null) changesDuringReload.add(event);
+            snapshot = apply(snapshot, event);
+            version++;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.reloadMillis:300000}")
+    public void reload() {
+        synchronized (writeLock) {
+            changesDuringReload = new ArrayList<>();
+        }
+
+        try {
+            var transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            List<ProductDto> products = transaction.execute(status -> productRepository.findCatalog());
+            var rebuilt = CatalogSnapshot.of(products);
+
+            synchronized (writeLock) {
+                for (ProductChangedEvent event : changesDuringReload) {
+                    rebuilt = apply(rebuilt, event);
+                }
+                snapshot = rebuilt;
+                version++;
+                loaded = true;
+            }
+            log.debug("Catalog reloaded with {} products", rebuilt.size());
+        } catch (Exception e) {
+            log.warn("Could not reload the catalog, keeping the current snapshot: {}", e.getMessage());
+        } finally {
+            synchronized (writeLock) {
+                changesDuringReload = null;
+            }
+        }
+    }
+
+    private static CatalogSnapshot apply(CatalogSnapshot current, ProductChangedEvent event) {
+        return event.product() == null ? current.without(event.productId()) : current.with(event.product());
+    }
+
+    private static String encodeCursor(ProductDto last, boolean byPrice) {
+        String raw = byPrice ? last.price().toPlainString() + ":" + last.id() : String.valueOf(last.id());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ProductDto decodeCursor(String cursor, boolean byPrice) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!byPrice) return CatalogSnapshot.probe(Long.parseLong(raw), null);
+
+            int separator = raw.indexOf(':');
+            if (separator < 0) throw new InvalidCursorException();
+
+            return CatalogSnapshot.probe(Long.parseLong(raw.substring(separator + 1)), new BigDecimal(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Immutable view of the active catalog. Every index is a sorted array, so lookups and keyset pages are a binary
+ * search followed by a sequential scan; changes produce a new snapshot that shares the untouched category arrays.
+ */
+final class CatalogSnapshot {
+    static final Comparator<ProductDto> BY_ID = Comparator.comparingLong(ProductDto::id);
+    static final Comparator<ProductDto> BY_PRICE = Comparator.comparing(ProductDto::price).thenComparingLong(ProductDto::id);
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(new ProductDto[0], new ProductDto[0], Map.of(), Map.of());
+
+    private static final ProductDto[] NONE = new ProductDto[0];
+
+    private final ProductDto[] byId;
+    private final ProductDto[] byPrice;
+    private final Map<String, ProductDto[]> categoryById;
+    private final Map<String, ProductDto[]> categoryByPrice;
+
+    private CatalogSnapshot(ProductDto[] byId,
+                            ProductDto[] byPrice,
+                            Map<String, ProductDto[]> categoryById,
+                            Map<String, ProductDto[]> categoryByPrice) {
+        this.byId = byId;
+        this.byPrice = byPrice;
+        this.categoryById = categoryById;
+        this.categoryByPrice = categoryByPrice;
+    }
+
+    static CatalogSnapshot of(Collection<ProductDto> products) {
+        ProductDto[] byId = products.toArray(NONE);
+        Arrays.sort(byId, BY_ID);
+        ProductDto[] byPrice = byId.clone();
+        Arrays.sort(byPrice, BY_PRICE);
+
+        Map<String, List<ProductDto>> categories = new HashMap<>();
+        for (ProductDto product : byId) {
+            categories.computeIfAbsent(product.category(), key -> new ArrayList<>()).add(product);
+        }
+
+        Map<String, ProductDto[]> categoryById = new HashMap<>();
+        Map<String, ProductDto[]> categoryByPrice = new HashMap<>();
+        categories.forEach((category, list) -> {
+            ProductDto[] ids = list.toArray(NONE);
+            ProductDto[] prices = ids.clone();
+            Arrays.sort(prices, BY_PRICE);
+            categoryById.put(category, ids);
+            categoryByPrice.put(category, prices);
+        });
+
+        return new CatalogSnapshot(byId, byPrice, categoryById, categoryByPrice);
+    }
+
+    int size() {
+        return byId.length;
+    }
+
+    Optional<ProductDto> find(long id) {
+        int index = Arrays.binarySearch(byId, probe(id, null), BY_ID);
+        return index >= 0 ? Optional.of(byId[index]) : Optional.empty();
+    }
+
+    CatalogSnapshot with(ProductDto product) {
+        var previous = find(product.id()).orElse(null);
+        return apply(previous, product);
+    }
+
+    CatalogSnapshot without(long id) {
+        var previous = find(id).orElse(null);
+        return previous == null ? this : apply(previous, null);
+    }
+
+    /**
+     * Returns up to {@code limit + 1} products after {@code after} in the given order; the extra element only tells
+     * the caller there is a next page.
+     */
+    List<ProductDto> page(String category, boolean sortByPrice, ProductDto after,
+                          BigDecimal minPrice, BigDecimal maxPrice, int limit) {
+        ProductDto[] source = category == null
+                ? (sortByPrice ? byPrice : byId)
+                : (sortByPrice ? categoryByPrice : categoryById).getOrDefault(category, NONE);
+        Comparator<ProductDto> order = sortByPrice ? BY_PRICE : BY_ID;
+
+        int start = after == null ? 0 : upperBound(source, after, order);
+        if (sortByPrice && minPrice != null) {
+            start = Math.max(start, upperBound(source, probe(Long.MIN_VALUE, minPrice), order));
+        }
+
+        List<ProductDto> page = new ArrayList<>(Math.min(limit + 1, source.length));
+        for (int i = start; i < source.length && page.size() <= limit; i++) {
+            var product = source[i];
+            if (maxPrice != null && product.price().compareTo(maxPrice) > 0) {
+                if (sortByPrice) break;
+                continue;
+            }
+            if (minPrice != null && product.price().compareTo(minPrice) < 0) continue;
+
+            page.add(product);
+        }
+
+        return page;
+    }
+
+    static ProductDto probe(long id, BigDecimal price) {
+        return new ProductDto(id, null, null, null, price);
+    }
+
+    private CatalogSnapshot apply(ProductDto previous, ProductDto next) {
+        ProductDto[] ids = replace(byId, previous, next, BY_ID);
+        ProductDto[] prices = replace(byPrice, previous, next, BY_PRICE);
+
+        Map<String, ProductDto[]> categoryIds = new HashMap<>(categoryById);
+        Map<String, ProductDto[]> categoryPrices = new HashMap<>(categoryByPrice);
+
+        if (previous != null) {
+            updateCategory(categoryIds, previous.category(), previous, null, BY_ID);
+            updateCategory(categoryPrices, previous.category(), previous, null, BY_PRICE);
+        }
+        if (next != null) {
+            updateCategory(categoryIds, next.category(), null, next, BY_ID);
+            updateCategory(categoryPrices, next.category(), null, next, BY_PRICE);
+        }
+
+        return new CatalogSnapshot(ids, prices, categoryIds, categoryPrices);
+    }
+
+    private static void updateCategory(Map<String, ProductDto[]> categories, String category,
+                                       ProductDto previous, ProductDto next, Comparator<ProductDto> order) {
+        ProductDto[] updated = replace(categories.getOrDefault(category, NONE), previous, next, order);
+        if (updated.length == 0) {
+            categories.remove(category);
+        } else {
+            categories.put(category, updated);
+        }
+    }
+
+    private static ProductDto[] replace(ProductDto[] sorted, ProductDto previous, ProductDto next, Comparator<ProductDto> order) {
+        ProductDto[] result = sorted;
+
+        if (previous != null) {
+            int index = Arrays.binarySearch(result, previous, order);
+            if (index >= 0) {
+                ProductDto[] shrunk = new ProductDto[result.length - 1];
+                System.arraycopy(result, 0, shrunk, 0, index);
+                System.arraycopy(result, index + 1, shrunk, index, result.length - index - 1);
+                result = shrunk;
+            }
+        }
+
+        if (next != null) {
+            int index = Arrays.binarySearch(result, next, order);
+            int insertAt = index >= 0 ? index : -index - 1;
+            ProductDto[] grown = new ProductDto[result.length + 1];
+            System.arraycopy(result, 0, grown, 0, insertAt);
+            grown[insertAt] = next;
+            System.arraycopy(result, insertAt, grown, insertAt + 1, result.length - insertAt);
+            result = grown;
+        }
+
+        return result;
+    }
+
+    private static int upperBound(ProductDto[] sorted, ProductDto key, Comparator<ProductDto> order) {
+        int index = Arrays.binarySearch(sorted, key, order);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.common.etag.ResourceVersionProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogVersionProvider implements ResourceVersionProvider {
+    private final CatalogIndex catalogIndex;
+
+    @Override
+    public String version(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!path.equals("/products") && !path.startsWith("/products/")) return null;
+        if (path.startsWith("/products/search")) return null;
+
+        return "catalog-" + catalogIndex.getVersion();
+    }
+
+    @Override
+    public CacheControl cacheControl() {
+        return CacheControl.noCache().cachePublic();
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductRequestDto;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/products")
+@RequiredArgsConstructor
+@Tag(name = "Product administration", description = "Admin only catalog management operations")
+public class ProductAdminController {
+    private final ProductService productService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ProductDto>> create(@Valid @RequestBody ProductRequestDto request) {
+        var product = productService.create(request);
+
+        var response = ApiResponse.<ProductDto>builder()
+                .message("product created successfully")
+                .status(HttpStatus.CREATED.value())
+                .data(product)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<ProductDto>> update(@PathVariable Long id, @Valid @RequestBody ProductRequestDto request) {
+        var product = productService.update(id, request);
+
+        var response = ApiResponse.<ProductDto>builder()
+                .message("product updated successfully")
+                .status(HttpStatus.OK.value())
+                .data(product)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> delete(@PathVariable Long id) {
+        productService.delete(id);
+
+        var response = ApiResponse.<Void>builder()
+                .message("product deleted successfully")
+                .status(HttpStatus.OK.value())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
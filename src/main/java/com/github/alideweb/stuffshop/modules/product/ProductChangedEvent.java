@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+
+/**
+ * Published inside the writing transaction; {@code product} is null when the product was removed from the catalog.
+ */
+public record ProductChangedEvent(long productId, ProductDto product) {
+}
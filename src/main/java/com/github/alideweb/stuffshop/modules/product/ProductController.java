@@ -0,0 +1,65 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.exceptions.ProductNotFoundException;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductPageDto;
+import com.github.alideweb.stuffshop.modules.product.enums.ProductSort;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+@Tag(name = "Products", description = "Catalog browsing served from the in-memory catalog index")
+public class ProductController {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CatalogIndex catalogIndex;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<ProductPageDto>> list(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        var page = catalogIndex.page(
+                ProductService.normalizeCategory(category),
+                ProductSort.getSort(sort),
+                cursor,
+                minPrice,
+                maxPrice,
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE))
+        );
+
+        var response = ApiResponse.<ProductPageDto>builder()
+                .message("products fetched successfully")
+                .status(HttpStatus.OK.value())
+                .data(page)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<ProductDto>> get(@PathVariable Long id) {
+        var product = catalogIndex.find(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+
+        var response = ApiResponse.<ProductDto>builder()
+                .message("product fetched successfully")
+                .status(HttpStatus.OK.value())
+                .data(product)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
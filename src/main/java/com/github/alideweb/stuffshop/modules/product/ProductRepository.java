@@ -0,0 +1,19 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+import com.github.alideweb.stuffshop.modules.product.entity.ProductEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+    Optional<ProductEntity> findByIdAndActiveTrue(Long id);
+
+    @Query("select new com.github.alideweb.stuffshop.modules.product.dto.ProductDto(p.id, p.name, p.description, p.category, p.price) " +
+            "from ProductEntity p where p.active = true")
+    List<ProductDto> findCatalog();
+}
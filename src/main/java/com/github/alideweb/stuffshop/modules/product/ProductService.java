@@ -0,0 +1,61 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.exceptions.ProductNotFoundException;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductRequestDto;
+import com.github.alideweb.stuffshop.modules.product.entity.ProductEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class ProductService {
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public ProductDto create(ProductRequestDto request) {
+        var product = new ProductEntity();
+        copy(request, product);
+
+        return publish(productRepository.save(product));
+    }
+
+    @Transactional
+    public ProductDto update(Long id, ProductRequestDto request) throws ProductNotFoundException {
+        var product = productRepository.findByIdAndActiveTrue(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+        copy(request, product);
+
+        return publish(productRepository.save(product));
+    }
+
+    @Transactional
+    public void delete(Long id) throws ProductNotFoundException {
+        var product = productRepository.findByIdAndActiveTrue(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+        product.setActive(false);
+
+        eventPublisher.publishEvent(new ProductChangedEvent(id, null));
+    }
+
+    public static String normalizeCategory(String category) {
+        return category == null ? null : category.trim().toLowerCase();
+    }
+
+    private void copy(ProductRequestDto request, ProductEntity product) {
+        product.setName(request.getName().trim());
+        product.setDescription(request.getDescription());
+        product.setCategory(normalizeCategory(request.getCategory()));
+        product.setPrice(request.getPrice());
+    }
+
+    private ProductDto publish(ProductEntity product) {
+        var dto = ProductDto.from(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(dto.id(), dto));
+
+        return dto;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.alideweb.stuffshop.modules.product.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.alideweb.stuffshop.common.json.JsonFields;
+import com.github.alideweb.stuffshop.common.json.JsonWritable;
+import com.github.alideweb.stuffshop.modules.product.entity.ProductEntity;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+public record ProductDto(long id, String name, String description, String category, BigDecimal price) implements JsonWritable {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString PRICE = new SerializedString("price");
+
+    public static ProductDto from(ProductEntity product) {
+        return new ProductDto(product.getId(), product.getName(), product.getDescription(), product.getCategory(), product.getPrice());
+    }
+
+    @Override
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.number(generator, ID, id);
+        JsonFields.string(generator, NAME, name);
+        JsonFields.string(generator, DESCRIPTION, description);
+        JsonFields.string(generator, CATEGORY, category);
+        JsonFields.number(generator, PRICE, price);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,22 @@
+package com.github.alideweb.stuffshop.modules.product.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.alideweb.stuffshop.common.json.JsonFields;
+import com.github.alideweb.stuffshop.common.json.JsonWritable;
+
+import java.io.IOException;
+import java.util.List;
+
+public record ProductPageDto(List<ProductDto> items, String nextCursor) implements JsonWritable {
+    private static final SerializedString ITEMS = new SerializedString("items");
+    private static final SerializedString NEXT_CURSOR = new SerializedString("nextCursor");
+
+    @Override
+    public void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        JsonFields.array(generator, ITEMS, items);
+        JsonFields.string(generator, NEXT_CURSOR, nextCursor);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.alideweb.stuffshop.modules.product.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductRequestDto {
+    @NotBlank
+    @Size(max = 255)
+    private String name;
+
+    @Size(max = 2000)
+    private String description;
+
+    @NotBlank
+    @Size(max = 100)
+    private String category;
+
+    @NotNull
+    @DecimalMin("0.00")
+    @Digits(integer = 10, fraction = 2)
+    private BigDecimal price;
+}
@@ -0,0 +1,36 @@
+package com.github.alideweb.stuffshop.modules.product.entity;
+
+import com.github.alideweb.stuffshop.common.entity.BaseEntity;
+import com.github.alideweb.stuffshop.modules.search.ProductSearchListener;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "products")
+@EntityListeners(ProductSearchListener.class)
+@NoArgsConstructor
+@Getter
+@Setter
+public class ProductEntity extends BaseEntity {
+    @Column(nullable = false)
+    private String name;
+
+    @Column(length = 2000)
+    private String description;
+
+    @Column(nullable = false, length = 100)
+    private String category;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private boolean active = true;
+}
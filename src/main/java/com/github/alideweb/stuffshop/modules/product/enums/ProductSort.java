@@ -0,0 +1,16 @@
+package com.github.alideweb.stuffshop.modules.product.enums;
+
+public enum ProductSort {
+    ID,
+    PRICE;
+
+    public static ProductSort getSort(String value) {
+        if (value == null) return null;
+
+        try {
+            return ProductSort.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
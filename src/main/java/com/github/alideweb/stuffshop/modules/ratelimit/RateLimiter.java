@@ -0,0 +1,94 @@
+package com.github.alideweb.stuffshop.modules.ratelimit;
+
+import com.github.alideweb.stuffshop.configs.RateLimitProperties;
+import com.github.alideweb.stuffshop.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimiter implements MeterBinder {
+    private final RateLimitProperties properties;
+
+    private final Map<String, TokenBucketStore> ipBuckets = new LinkedHashMap<>();
+    private final Map<String, TokenBucketStore> usernameBuckets = new LinkedHashMap<>();
+    private final Map<String, String> routesByPath = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        properties.getRoutes().forEach((name, route) -> {
+            ipBuckets.put(name, new TokenBucketStore(properties.getStripes(), properties.getMaxKeysPerStripe(),
+                    route.getCapacity(), route.getRefillPerMinute()));
+            usernameBuckets.put(name, new TokenBucketStore(properties.getStripes(), properties.getMaxKeysPerStripe(),
+                    route.getUsernameCapacity(), route.getUsernameRefillPerMinute()));
+            routesByPath.put(route.getPath(), name);
+        });
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String routeFor(String path) {
+        return routesByPath.get(path);
+    }
+
+    public long tryAcquireIp(String route, String ip) {
+        return ipBuckets.get(route).tryAcquire(ip);
+    }
+
+    public void acquireUsername(String route, String username) throws RateLimitExceededException {
+        var buckets = usernameBuckets.get(route);
+        if (!properties.isEnabled() || buckets == null) return;
+
+        long waitNanos = buckets.tryAcquire(username);
+        if (waitNanos > 0) {
+            throw new RateLimitExceededException(retryAfterSeconds(waitNanos));
+        }
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweepMillis:30000}")
+    public void evictIdle() {
+        long idleNanos = TimeUnit.SECONDS.toNanos(properties.getIdleSeconds());
+
+        ipBuckets.values().forEach(buckets -> buckets.evictIdle(idleNanos));
+        usernameBuckets.values().forEach(buckets -> buckets.evictIdle(idleNanos));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        bind(registry, ipBuckets, "ip");
+        bind(registry, usernameBuckets, "username");
+    }
+
+    private void bind(MeterRegistry registry, Map<String, TokenBucketStore> stores, String dimension) {
+        stores.forEach((route, buckets) -> {
+            FunctionCounter.builder("ratelimit.requests", buckets.allowed, LongAdder::sum)
+                    .tags("route", route, "key", dimension, "outcome", "allowed")
+                    .register(registry);
+            FunctionCounter.builder("ratelimit.requests", buckets.rejected, LongAdder::sum)
+                    .tags("route", route, "key", dimension, "outcome", "rejected")
+                    .register(registry);
+            Gauge.builder("ratelimit.buckets", buckets, TokenBucketStore::size)
+                    .tags("route", route, "key", dimension)
+                    .register(registry);
+        });
+    }
+}
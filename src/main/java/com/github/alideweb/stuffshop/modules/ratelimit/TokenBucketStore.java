@@ -0,0 +1,111 @@
+package com.github.alideweb.stuffshop.modules.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GCRA token buckets keyed by client address or username, in stripes of at most {@code maxKeysPerStripe} keys. A new
+ * key in a full stripe first drops the buckets that have refilled completely, which forgets nothing, and otherwise
+ * the one closest to full, so every key keeps its own bucket however many keys arrive.
+ */
+class TokenBucketStore {
+    private final Stripe[] stripes;
+    private final int maxKeysPerStripe;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    final LongAdder allowed = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+
+    TokenBucketStore(int stripeCount, int maxKeysPerStripe, int capacity, double refillPerMinute) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        this.maxKeysPerStripe = maxKeysPerStripe;
+        this.intervalNanos = (long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute);
+        this.burstNanos = intervalNanos * capacity;
+
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    long tryAcquire(String key) {
+        long now = System.nanoTime();
+        long waitNanos = bucket(key, now).tryAcquire(now, intervalNanos, burstNanos);
+
+        if (waitNanos > 0) {
+            rejected.increment();
+        } else {
+            allowed.increment();
+        }
+
+        return waitNanos;
+    }
+
+    void evictIdle(long idleNanos) {
+        long now = System.nanoTime();
+
+        for (Stripe stripe : stripes) {
+            stripe.buckets.values().removeIf(bucket -> now - bucket.get() > idleNanos);
+        }
+    }
+
+    long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private Bucket bucket(String key, long now) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+
+        Bucket bucket = stripe.buckets.get(key);
+        if (bucket != null) return bucket;
+
+        if (stripe.buckets.size() >= maxKeysPerStripe) makeRoom(stripe, now);
+
+        return stripe.buckets.computeIfAbsent(key, k -> new Bucket(now));
+    }
+
+    private void makeRoom(Stripe stripe, long now) {
+        stripe.buckets.values().removeIf(bucket -> bucket.get() <= now);
+        if (stripe.buckets.size() < maxKeysPerStripe) return;
+
+        String fullest = null;
+        long earliest = Long.MAX_VALUE;
+        for (var entry : stripe.buckets.entrySet()) {
+            long theoreticalArrival = entry.getValue().get();
+            if (theoreticalArrival < earliest) {
+                earliest = theoreticalArrival;
+                fullest = entry.getKey();
+            }
+        }
+        if (fullest != null) stripe.buckets.remove(fullest);
+    }
+
+    private static final class Stripe {
+        private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    }
+
+    private static final class Bucket extends AtomicLong {
+        private Bucket(long now) {
+            super(now);
+        }
+
+        private long tryAcquire(long now, long intervalNanos, long burstNanos) {
+            while (true) {
+                long theoreticalArrival = get();
+                long next = Math.max(theoreticalArrival - now, 0) + now + intervalNanos;
+                long waitNanos = next - now - burstNanos;
+
+                if (waitNanos > 0) return waitNanos;
+                if (compareAndSet(theoreticalArrival, next)) return 0;
+            }
+        }
+    }
+}
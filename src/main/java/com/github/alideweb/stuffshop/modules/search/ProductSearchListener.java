@@ -0,0 +1,56 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+import com.github.alideweb.stuffshop.modules.product.entity.ProductEntity;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link SearchIndex} in step with product writes. Callbacks fire at flush time, so the change is applied only
+ * once the surrounding transaction commits. Hibernate creates the listener while the EntityManagerFactory is being
+ * built, and the index depends on that factory, so the index is looked up on first use.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSearchListener {
+    private final ObjectProvider<SearchIndex> searchIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(ProductEntity product) {
+        long id = product.getId();
+
+        if (product.isActive()) {
+            String name = product.getName();
+            String description = product.getDescription();
+            afterCommit(() -> searchIndex.getObject().index(id, name, description));
+        } else {
+            afterCommit(() -> searchIndex.getObject().remove(id));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(ProductEntity product) {
+        long id = product.getId();
+        afterCommit(() -> searchIndex.getObject().remove(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.modules.product.CatalogIndex;
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Objects;
+
+@RestController
+@RequestMapping("/products/search")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "Full-text product search and autocomplete")
+public class SearchController {
+    private static final int MAX_RESULTS = 100;
+
+    private final SearchIndex searchIndex;
+    private final CatalogIndex catalogIndex;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ProductDto>>> search(@RequestParam String q,
+                                                                @RequestParam(defaultValue = "20") int limit) {
+        List<ProductDto> products = searchIndex.search(q, Math.max(1, Math.min(limit, MAX_RESULTS))).stream()
+                .map(hit -> catalogIndex.find(hit.productId()).orElse(null))
+                .filter(Objects::nonNull)
+                .toList();
+
+        var response = ApiResponse.<List<ProductDto>>builder()
+                .message("search completed successfully")
+                .status(HttpStatus.OK.value())
+                .data(products)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<String>>> suggest(@RequestParam String prefix,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        var suggestions = searchIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_RESULTS)));
+
+        var response = ApiResponse.<List<String>>builder()
+                .message("suggestions fetched successfully")
+                .status(HttpStatus.OK.value())
+                .data(suggestions)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+}
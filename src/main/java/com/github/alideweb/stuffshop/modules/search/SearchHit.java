@@ -0,0 +1,4 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+public record SearchHit(long productId, double score) {
+}
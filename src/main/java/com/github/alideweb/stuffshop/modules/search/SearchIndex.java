@@ -0,0 +1,249 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * In-process full-text index over active products. Readers work on the volatile segment list they loaded and never
+ * block; a single writer at a time appends a one-document segment per change, tombstones the previous version and
+ * merges the smallest segments once there are more than {@code search.maxSegments}. A periodic full rebuild picks up
+ * changes made by other instances and drops the tombstones the merges leave behind in the largest segment.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final Object writeLock = new Object();
+
+    @Value("${search.maxSegments:10}")
+    private int maxSegments;
+
+    @Value("${search.autocomplete.maxScan:10000}")
+    private int maxPrefixScan;
+
+    private volatile List<SearchSegment> segments = List.of();
+    private volatile long version;
+    private List<Change> changesDuringBuild;
+
+    private record Change(long productId, String name, String description) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (writeLock) {
+            if (changesDuringBuild != null) return;
+            changesDuringBuild = new ArrayList<>();
+        }
+
+        try {
+            var builder = new SearchSegment.Builder();
+            var transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement("select id, name, description from products where active = true");
+                statement.setFetchSize(5_000);
+                return statement;
+            }, (RowCallbackHandler) rs -> builder.addDocument(rs.getLong(1), Tokenizer.tokenize(rs.getString(2), rs.getString(3)))));
+
+            var base = builder.build();
+            synchronized (writeLock) {
+                segments = List.of(base);
+                changesDuringBuild.forEach(this::apply);
+                version++;
+            }
+            log.debug("Search index built with {} products", base.liveDocs());
+        } catch (Exception e) {
+            log.warn("Could not build the search index: {}", e.getMessage());
+        } finally {
+            synchronized (writeLock) {
+                changesDuringBuild = null;
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${search.rebuildMillis:300000}", fixedDelayString = "${search.rebuildMillis:300000}")
+    public void rebuild() {
+        build();
+    }
+
+    public void index(long productId, String name, String description) {
+        record(new Change(productId, name, description));
+    }
+
+    public void remove(long productId) {
+        record(new Change(productId, null, null));
+    }
+
+    /**
+     * Bumped after every change has been applied, so a response built after reading a version is at least that fresh.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        List<SearchSegment> current = segments;
+        List<String> terms = Tokenizer.tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty() || current.isEmpty()) return List.of();
+
+        long docCount = 0;
+        long totalLength = 0;
+        for (SearchSegment segment : current) {
+            docCount += segment.liveDocs();
+            totalLength += segment.liveLength();
+        }
+        if (docCount == 0) return List.of();
+
+        double avgLength = Math.max(1.0, (double) totalLength / docCount);
+        double[] idf = new double[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            long df = 0;
+            for (SearchSegment segment : current) df += segment.docFreq(terms.get(i));
+            idf[i] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        }
+
+        var top = new PriorityQueue<SearchHit>(limit + 1, Comparator.comparingDouble(SearchHit::score));
+        for (SearchSegment segment : current) {
+            collect(segment, terms, idf, avgLength, top, limit);
+        }
+
+        Map<Long, SearchHit> unique = new HashMap<>();
+        for (SearchHit hit : top) {
+            unique.merge(hit.productId(), hit, (a, b) -> a.score() >= b.score() ? a : b);
+        }
+
+        List<SearchHit> hits = new ArrayList<>(unique.values());
+        hits.sort(Comparator.comparingDouble(SearchHit::score).reversed().thenComparingLong(SearchHit::productId));
+        return hits;
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        List<String> tokens = Tokenizer.tokenize(prefix);
+        if (tokens.isEmpty()) return List.of();
+
+        String term = tokens.get(tokens.size() - 1);
+        Map<String, Integer> docFreqs = new HashMap<>();
+        for (SearchSegment segment : segments) {
+            segment.collectPrefix(term, docFreqs, maxPrefixScan);
+        }
+
+        return docFreqs.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static void collect(SearchSegment segment, List<String> terms, double[] idf, double avgLength,
+                                PriorityQueue<SearchHit> top, int limit) {
+        var cursors = new SearchSegment.PostingsCursor[terms.size()];
+        double[] weights = new double[terms.size()];
+        int count = 0;
+        for (int i = 0; i < terms.size(); i++) {
+            int termIndex = segment.termIndex(terms.get(i));
+            if (termIndex < 0 || segment.liveDocFreq(termIndex) == 0) continue;
+
+            cursors[count] = segment.cursor(termIndex);
+            cursors[count].next();
+            weights[count++] = idf[i] * (K1 + 1);
+        }
+
+        double lengthBase = K1 * (1 - B);
+        double lengthScale = K1 * B / avgLength;
+        double threshold = top.size() < limit ? Double.NEGATIVE_INFINITY : top.peek().score();
+
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = 0; i < count; i++) doc = Math.min(doc, cursors[i].doc);
+            if (doc == Integer.MAX_VALUE) return;
+
+            if (segment.isDeleted(doc)) {
+                for (int i = 0; i < count; i++) {
+                    if (cursors[i].doc == doc) cursors[i].next();
+                }
+                continue;
+            }
+
+            double norm = lengthBase + lengthScale * segment.docLength(doc);
+            double score = 0;
+            for (int i = 0; i < count; i++) {
+                var cursor = cursors[i];
+                if (cursor.doc == doc) {
+                    score += weights[i] * cursor.tf / (cursor.tf + norm);
+                    cursor.next();
+                }
+            }
+
+            if (score > threshold) {
+                if (top.size() == limit) top.poll();
+                top.add(new SearchHit(segment.productId(doc), score));
+                if (top.size() == limit) threshold = top.peek().score();
+            }
+        }
+    }
+
+    private void record(Change change) {
+        synchronized (writeLock) {
+            if (changesDuringBuild != null) changesDuringBuild.add(change);
+            apply(change);
+            version++;
+        }
+    }
+
+    private void apply(Change change) {
+        List<SearchSegment> previous = segments;
+        SearchSegment added = null;
+
+        if (change.name() != null) {
+            var builder = new SearchSegment.Builder();
+            builder.addDocument(change.productId(), Tokenizer.tokenize(change.name(), change.description()));
+            if (!builder.isEmpty()) added = builder.build();
+        }
+
+        if (added == null) {
+            previous.forEach(segment -> segment.delete(change.productId()));
+            return;
+        }
+
+        List<SearchSegment> next = new ArrayList<>(previous.size() + 1);
+        next.addAll(previous);
+        next.add(added);
+
+        if (next.size() <= maxSegments) {
+            segments = List.copyOf(next);
+            previous.forEach(segment -> segment.delete(change.productId()));
+        } else {
+            previous.forEach(segment -> segment.delete(change.productId()));
+            segments = mergeSmallest(next);
+        }
+    }
+
+    private List<SearchSegment> mergeSmallest(List<SearchSegment> current) {
+        List<SearchSegment> bySize = new ArrayList<>(current);
+        bySize.sort(Comparator.comparingInt(SearchSegment::liveDocs));
+
+        int mergeCount = current.size() - maxSegments / 2;
+        List<SearchSegment> toMerge = bySize.subList(0, mergeCount);
+        var merged = SearchSegment.merge(toMerge);
+
+        List<SearchSegment> next = new ArrayList<>(bySize.subList(mergeCount, bySize.size()));
+        next.add(merged);
+        return List.copyOf(next);
+    }
+}
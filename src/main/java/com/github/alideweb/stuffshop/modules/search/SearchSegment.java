@@ -0,0 +1,289 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An immutable slice of the inverted index. Documents are numbered by ascending product id, and each term's postings
+ * are stored as varint-encoded (ordinal delta, term frequency) pairs in one shared byte array. Each document's term
+ * indexes are kept the same way, so a deletion can update the live document frequency of just the terms it contained.
+ * The only mutable parts are the deletion bitmap, which is append-only, and those frequencies; both are safe to read
+ * without locking.
+ */
+final class SearchSegment {
+    private final String[] terms;
+    private final int[] offsets;
+    private final byte[] postings;
+    private final long[] productIds;
+    private final int[] docLengths;
+    private final int[] docTermOffsets;
+    private final byte[] docTerms;
+    private final AtomicIntegerArray liveDocFreqs;
+    private final AtomicLongArray deleted;
+    private final AtomicInteger liveDocs;
+    private final AtomicLong liveLength;
+
+    private SearchSegment(String[] terms, int[] docFreqs, int[] offsets, byte[] postings, long[] productIds, int[] docLengths,
+                          int[] docTermOffsets, byte[] docTerms) {
+        this.terms = terms;
+        this.offsets = offsets;
+        this.postings = postings;
+        this.productIds = productIds;
+        this.docLengths = docLengths;
+        this.docTermOffsets = docTermOffsets;
+        this.docTerms = docTerms;
+        this.liveDocFreqs = new AtomicIntegerArray(docFreqs);
+        this.deleted = new AtomicLongArray((productIds.length + 63) / 64);
+        this.liveDocs = new AtomicInteger(productIds.length);
+        this.liveLength = new AtomicLong(Arrays.stream(docLengths).asLongStream().sum());
+    }
+
+    int liveDocs() {
+        return liveDocs.get();
+    }
+
+    long liveLength() {
+        return liveLength.get();
+    }
+
+    int termIndex(String term) {
+        return Arrays.binarySearch(terms, term);
+    }
+
+    int docFreq(String term) {
+        int index = termIndex(term);
+        return index >= 0 ? liveDocFreq(index) : 0;
+    }
+
+    int liveDocFreq(int termIndex) {
+        return liveDocFreqs.get(termIndex);
+    }
+
+    long productId(int ordinal) {
+        return productIds[ordinal];
+    }
+
+    int docLength(int ordinal) {
+        return docLengths[ordinal];
+    }
+
+    boolean isDeleted(int ordinal) {
+        return (deleted.get(ordinal >>> 6) & (1L << ordinal)) != 0;
+    }
+
+    void delete(long productId) {
+        int ordinal = Arrays.binarySearch(productIds, productId);
+        if (ordinal < 0) return;
+
+        int word = ordinal >>> 6;
+        long mask = 1L << ordinal;
+        long current;
+        do {
+            current = deleted.get(word);
+            if ((current & mask) != 0) return;
+        } while (!deleted.compareAndSet(word, current, current | mask));
+
+        liveDocs.decrementAndGet();
+        liveLength.addAndGet(-docLengths[ordinal]);
+
+        var docTermsCursor = new PostingsCursor(docTerms, docTermOffsets[ordinal], docTermOffsets[ordinal + 1]);
+        int termIndex = -1;
+        while (docTermsCursor.hasNext()) {
+            termIndex += docTermsCursor.readVarint();
+            liveDocFreqs.decrementAndGet(termIndex);
+        }
+    }
+
+    PostingsCursor cursor(int termIndex) {
+        return new PostingsCursor(postings, offsets[termIndex], offsets[termIndex + 1]);
+    }
+
+    void collectPrefix(String prefix, Map<String, Integer> docFreqsByTerm, int maxScan) {
+        int index = Arrays.binarySearch(terms, prefix);
+        if (index < 0) index = -index - 1;
+
+        for (int scanned = 0; index < terms.length && scanned < maxScan && terms[index].startsWith(prefix); index++, scanned++) {
+            int live = liveDocFreq(index);
+            if (live > 0) docFreqsByTerm.merge(terms[index], live, Integer::sum);
+        }
+    }
+
+    static SearchSegment merge(Collection<SearchSegment> segments) {
+        var builder = new Builder();
+
+        for (SearchSegment segment : segments) {
+            for (int t = 0; t < segment.terms.length; t++) {
+                var cursor = segment.cursor(t);
+                while (cursor.next()) {
+                    if (!segment.isDeleted(cursor.doc)) {
+                        builder.add(segment.productIds[cursor.doc], segment.terms[t], cursor.tf);
+                    }
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    static final class PostingsCursor {
+        private final byte[] data;
+        private final int end;
+        private int pos;
+        int doc = -1;
+        int tf;
+
+        private PostingsCursor(byte[] data, int start, int end) {
+            this.data = data;
+            this.pos = start;
+            this.end = end;
+        }
+
+        private boolean hasNext() {
+            return pos < end;
+        }
+
+        boolean next() {
+            if (pos >= end) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+
+            doc += readVarint();
+            tf = readVarint();
+            return true;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            return value;
+        }
+    }
+
+    static final class Builder {
+        private final Map<String, TermPostings> postings = new HashMap<>();
+        private final Map<Long, Integer> lengths = new HashMap<>();
+
+        boolean isEmpty() {
+            return lengths.isEmpty();
+        }
+
+        void addDocument(long productId, List<String> tokens) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            frequencies.forEach((term, tf) -> add(productId, term, tf));
+        }
+
+        void add(long productId, String term, int tf) {
+            postings.computeIfAbsent(term, key -> new TermPostings()).add(productId, tf);
+            lengths.merge(productId, tf, Integer::sum);
+        }
+
+        SearchSegment build() {
+            long[] productIds = lengths.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int[] docLengths = new int[productIds.length];
+            for (int i = 0; i < productIds.length; i++) {
+                docLengths[i] = lengths.get(productIds[i]);
+            }
+
+            String[] terms = postings.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[] docFreqs = new int[terms.length];
+            int[] offsets = new int[terms.length + 1];
+            var out = new VarintWriter();
+
+            for (int t = 0; t < terms.length; t++) {
+                var termPostings = postings.get(terms[t]);
+                long[] entries = new long[termPostings.size];
+                for (int i = 0; i < termPostings.size; i++) {
+                    long ordinal = Arrays.binarySearch(productIds, termPostings.productIds[i]);
+                    entries[i] = ordinal << 32 | termPostings.tfs[i];
+                }
+                Arrays.sort(entries);
+
+                offsets[t] = out.size;
+                docFreqs[t] = entries.length;
+                int previous = -1;
+                for (long entry : entries) {
+                    int ordinal = (int) (entry >>> 32);
+                    out.write(ordinal - previous);
+                    out.write((int) entry);
+                    previous = ordinal;
+                }
+            }
+            offsets[terms.length] = out.size;
+            byte[] postingsData = Arrays.copyOf(out.data, out.size);
+
+            int[] termCounts = new int[productIds.length + 1];
+            for (int t = 0; t < terms.length; t++) {
+                var cursor = new PostingsCursor(postingsData, offsets[t], offsets[t + 1]);
+                while (cursor.next()) termCounts[cursor.doc + 1]++;
+            }
+            for (int i = 0; i < productIds.length; i++) termCounts[i + 1] += termCounts[i];
+
+            int[] termsByDoc = new int[termCounts[productIds.length]];
+            int[] fill = Arrays.copyOf(termCounts, productIds.length);
+            for (int t = 0; t < terms.length; t++) {
+                var cursor = new PostingsCursor(postingsData, offsets[t], offsets[t + 1]);
+                while (cursor.next()) termsByDoc[fill[cursor.doc]++] = t;
+            }
+
+            int[] docTermOffsets = new int[productIds.length + 1];
+            var docTermsOut = new VarintWriter();
+            for (int i = 0; i < productIds.length; i++) {
+                docTermOffsets[i] = docTermsOut.size;
+                int previous = -1;
+                for (int j = termCounts[i]; j < termCounts[i + 1]; j++) {
+                    docTermsOut.write(termsByDoc[j] - previous);
+                    previous = termsByDoc[j];
+                }
+            }
+            docTermOffsets[productIds.length] = docTermsOut.size;
+
+            return new SearchSegment(terms, docFreqs, offsets, postingsData, productIds, docLengths,
+                    docTermOffsets, Arrays.copyOf(docTermsOut.data, docTermsOut.size));
+        }
+    }
+
+    private static final class TermPostings {
+        private long[] productIds = new long[2];
+        private int[] tfs = new int[2];
+        private int size;
+
+        void add(long productId, int tf) {
+            if (size == productIds.length) {
+                productIds = Arrays.copyOf(productIds, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            productIds[size] = productId;
+            tfs[size++] = tf;
+        }
+    }
+
+    private static final class VarintWriter {
+        private byte[] data = new byte[1024];
+        private int size;
+
+        void write(int value) {
+            if (size + 5 > data.length) data = Arrays.copyOf(data, data.length * 2);
+
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+import com.github.alideweb.stuffshop.common.etag.ResourceVersionProvider;
+import com.github.alideweb.stuffshop.modules.product.CatalogIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SearchVersionProvider implements ResourceVersionProvider {
+    private final SearchIndex searchIndex;
+    private final CatalogIndex catalogIndex;
+
+    @Override
+    public String version(HttpServletRequest request) {
+        if (!request.getRequestURI().startsWith("/products/search")) return null;
+
+        return "search-" + searchIndex.getVersion() + "-" + catalogIndex.getVersion();
+    }
+
+    @Override
+    public CacheControl cacheControl() {
+        return CacheControl.noCache().cachePublic();
+    }
+}
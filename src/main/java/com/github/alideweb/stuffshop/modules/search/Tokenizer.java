@@ -0,0 +1,38 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class Tokenizer {
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 40;
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String... texts) {
+        List<String> tokens = new ArrayList<>();
+
+        for (String text : texts) {
+            if (text == null) continue;
+
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    int length = i - start;
+                    if (length >= MIN_LENGTH && length <= MAX_LENGTH) {
+                        tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                    }
+                    start = -1;
+                }
+            }
+        }
+
+        return tokens;
+    }
+}
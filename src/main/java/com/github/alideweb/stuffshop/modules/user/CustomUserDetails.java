@@ -1,6 +1,7 @@
 package com.github.alideweb.stuffshop.modules.user;
 
 import com.github.alideweb.stuffshop.modules.user.entity.UserEntity;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -13,6 +14,14 @@ import java.util.Collections;
 public class CustomUserDetails implements UserDetails {
     private final UserEntity user;
 
+    public static CustomUserDetails fromClaims(String username, UserRoles role) {
+        var user = new UserEntity();
+        user.setUsername(username);
+        user.setRole(role);
+
+        return new CustomUserDetails(user);
+    }
+
     @Override
     public String getPassword() {
         return user.getPassword();
@@ -0,0 +1,59 @@
+package com.github.alideweb.stuffshop.modules.user;
+
+import com.github.alideweb.stuffshop.common.dto.ApiResponse;
+import com.github.alideweb.stuffshop.modules.user.dto.UserImportReportDto;
+import com.github.alideweb.stuffshop.modules.user.enums.UserFileFormat;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/admin/users")
+@RequiredArgsConstructor
+@Tag(name = "User administration", description = "Admin only user management operations")
+public class UserAdminController {
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ApiResponse<UserImportReportDto>> importUsers(
+            @RequestHeader("Content-Type") String contentType,
+            HttpServletRequest request
+    ) throws IOException {
+        var report = userImportService.importUsers(request.getInputStream(), UserFileFormat.fromContentType(contentType));
+
+        var response = ApiResponse.<UserImportReportDto>builder()
+                .message("imported " + report.getImported() + " of " + report.getTotal() + " users")
+                .status(HttpStatus.OK.value())
+                .data(report)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/export")
+    public void exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") long limit,
+            HttpServletResponse response
+    ) throws IOException {
+        var fileFormat = "csv".equalsIgnoreCase(format) ? UserFileFormat.CSV : UserFileFormat.NDJSON;
+        long afterId = userExportService.decodeCursor(cursor);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(fileFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + fileFormat.name().toLowerCase() + "\"");
+
+        userExportService.export(response.getOutputStream(), fileFormat, afterId, limit);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.alideweb.stuffshop.modules.user;
+
+import com.github.alideweb.stuffshop.modules.user.entity.UserEntity;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+@Component
+public class UserCache implements MeterBinder {
+    @Value("${users.cache.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${users.cache.ttlSeconds:60}")
+    private long ttlSeconds;
+
+    @Value("${users.cache.negativeTtlSeconds:5}")
+    private long negativeTtlSeconds;
+
+    private AsyncCache<String, Optional<UserEntity>> cache;
+
+    @PostConstruct
+    public void init() {
+        long ttl = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtl = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<UserEntity>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<UserEntity> user, long currentTime) {
+                        return user.isPresent() ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<UserEntity> user, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, user, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<UserEntity> user, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Optional<UserEntity> get(String username, Function<String, Optional<UserEntity>> loader) {
+        CompletableFuture<Optional<UserEntity>> cached = cache.getIfPresent(username);
+
+        if (cached == null) {
+            var loading = new CompletableFuture<Optional<UserEntity>>();
+            cached = cache.asMap().putIfAbsent(username, loading);
+
+            if (cached == null) {
+                return load(username, loading, loader);
+            }
+        }
+
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw e;
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.synchronous().invalidate(username);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "users");
+    }
+
+    private Optional<UserEntity> load(String username,
+                                      CompletableFuture<Optional<UserEntity>> loading,
+                                      Function<String, Optional<UserEntity>> loader) {
+        try {
+            var user = loader.apply(username);
+            loading.complete(user);
+            return user;
+        } catch (Throwable e) {
+            // Errors too: an incomplete future would stay cached and block every later reader of this user
+            cache.asMap().remove(username, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.alideweb.stuffshop.modules.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserExistenceIndex {
+    private static final long USERNAME_SEED = 0x9E3779B97F4A7C15L;
+    private static final long EMAIL_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${users.existence.expectedInsertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${users.existence.falsePositiveRate:0.01}")
+    private double falsePositiveRate;
+
+    private AtomicLongArray bits;
+    private long bitCount;
+    private int hashCount;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long entries = Math.max(1, expectedInsertions * 2);
+        bitCount = Math.max(64, (long) (-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+        bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+
+        try {
+            var transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement("select username, email from users");
+                statement.setFetchSize(5_000);
+                return statement;
+            }, (RowCallbackHandler) rs -> add(rs.getString(1), rs.getString(2))));
+
+            ready = true;
+            log.info("User existence index built with {} bits and {} hashes", bitCount, hashCount);
+        } catch (Exception e) {
+            log.warn("Could not build the user existence index, falling back to database checks: {}", e.getMessage());
+        }
+    }
+
+    public boolean mightContainUsername(String username) {
+        return mightContain(username, USERNAME_SEED);
+    }
+
+    public boolean mightContainEmail(String email) {
+        return mightContain(email, EMAIL_SEED);
+    }
+
+    public void add(String username, String email) {
+        if (bits == null) return;
+
+        put(username, USERNAME_SEED);
+        put(email, EMAIL_SEED);
+    }
+
+    private boolean mightContain(String value, long seed) {
+        if (!ready) return true;
+
+        long hash = hash(value, seed);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+
+        return true;
+    }
+
+    private void put(String value, long seed) {
+        long hash = hash(value, seed);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current;
+            do {
+                current = bits.get(index);
+            } while ((current & mask) == 0 && !bits.compareAndSet(index, current, current | mask));
+        }
+    }
+
+    private static long hash(String value, long seed) {
+        long hash = seed;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.alideweb.stuffshop.modules.user;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alideweb.stuffshop.exceptions.InvalidCursorException;
+import com.github.alideweb.stuffshop.modules.user.enums.UserFileFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Streams users straight from a forward-only JDBC cursor to the response, one row at a time, so memory use does not
+ * depend on the number of users. Rows come out in id order and each carries a cursor; passing the last one received
+ * back as {@code cursor} resumes an interrupted export. Password hashes are never selected.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportService {
+    private static final String QUERY = "select id, username, email, name, role, created_at from users where id > ? order by id";
+    private static final String CSV_HEADER = "id,username,email,name,role,created_at,cursor\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${users.export.fetchSize:1000}")
+    private int fetchSize;
+
+    @Value("${users.export.bufferBytes:65536}")
+    private int bufferBytes;
+
+    public long decodeCursor(String cursor) throws InvalidCursorException {
+        if (cursor == null || cursor.isBlank()) return 0;
+
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    public long export(OutputStream output, UserFileFormat format, long afterId, long limit) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), bufferBytes);
+        var rowWriter = format == UserFileFormat.CSV ? new CsvRowWriter(writer) : new JsonRowWriter(writer, objectMapper);
+        long[] written = {0};
+
+        rowWriter.start();
+
+        var transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                if (limit > 0) statement.setMaxRows((int) Math.min(limit, Integer.MAX_VALUE));
+                statement.setLong(1, afterId);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(rs);
+                    written[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            log.debug("User export aborted after {} rows: {}", written[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        rowWriter.finish();
+        writer.flush();
+
+        return written[0];
+    }
+
+    private static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String timestamp(Timestamp value) {
+        return value == null ? null : value.toLocalDateTime().toString();
+    }
+
+    private interface RowWriter {
+        default void start() throws IOException {
+        }
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        default void finish() throws IOException {
+        }
+    }
+
+    private static final class JsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        private JsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            long id = rs.getLong(1);
+
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeStringField("username", rs.getString(2));
+            generator.writeStringField("email", rs.getString(3));
+            generator.writeStringField("name", rs.getString(4));
+            generator.writeStringField("role", rs.getString(5));
+            generator.writeStringField("createdAt", timestamp(rs.getTimestamp(6)));
+            generator.writeStringField("cursor", encodeCursor(id));
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+
+    private record CsvRowWriter(Writer writer) implements RowWriter {
+        @Override
+        public void start() throws IOException {
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            long id = rs.getLong(1);
+
+            writer.write(String.valueOf(id));
+            for (int column = 2; column <= 5; column++) {
+                writer.write(',');
+                writeValue(rs.getString(column));
+            }
+            writer.write(',');
+            writeValue(timestamp(rs.getTimestamp(6)));
+            writer.write(',');
+            writer.write(encodeCursor(id));
+            writer.write('\n');
+        }
+
+        private void writeValue(String value) throws IOException {
+            if (value == null) return;
+
+            // Spreadsheets evaluate cells starting with these as formulas; a leading quote makes them plain text
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) value = "'" + value;
+
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.github.alideweb.stuffshop.modules.user;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alideweb.stuffshop.exceptions.HashingUnavailableException;
+import com.github.alideweb.stuffshop.exceptions.InvalidImportFileException;
+import com.github.alideweb.stuffshop.modules.password.PasswordHashingService;
+import com.github.alideweb.stuffshop.modules.user.dto.UserImportErrorDto;
+import com.github.alideweb.stuffshop.modules.user.dto.UserImportReportDto;
+import com.github.alideweb.stuffshop.modules.user.dto.UserImportRowDto;
+import com.github.alideweb.stuffshop.modules.user.entity.UserEntity;
+import com.github.alideweb.stuffshop.modules.user.enums.UserFileFormat;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportService {
+    private static final List<String> CSV_COLUMNS = List.of("username", "email", "password", "name", "role");
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final UserExistenceIndex existenceIndex;
+    private final UserInvalidationChannel invalidationChannel;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${users.import.batchSize:500}")
+    private int batchSize;
+
+    @Value("${users.import.maxReportedErrors:1000}")
+    private int maxReportedErrors;
+
+    public UserImportReportDto importUsers(InputStream input, UserFileFormat format) throws IOException {
+        var report = new UserImportReportDto();
+        var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int[] columns = format == UserFileFormat.CSV ? csvColumns(reader.readLine()) : null;
+        long lineNumber = format == UserFileFormat.CSV ? 1 : 0;
+
+        List<Row> batch = new ArrayList<>(batchSize);
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+
+            report.setTotal(report.getTotal() + 1);
+            try {
+                var dto = format == UserFileFormat.CSV ? parseCsv(line, columns) : objectMapper.readValue(line, UserImportRowDto.class);
+                batch.add(new Row(lineNumber, dto));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                reject(report, lineNumber, null, "malformed row");
+            }
+
+            if (batch.size() >= batchSize) {
+                importBatch(batch, report);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) importBatch(batch, report);
+
+        log.info("User import finished: {} rows, {} imported, {} failed", report.getTotal(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void importBatch(List<Row> rows, UserImportReportDto report) {
+        List<Row> accepted = new ArrayList<>(rows.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+
+        for (Row row : rows) {
+            var error = validate(row);
+            if (error != null) {
+                reject(report, row.line, row.dto.getUsername(), error);
+            } else if (!usernames.add(row.username)) {
+                reject(report, row.line, row.username, "duplicate username in file");
+            } else if (!emails.add(row.email)) {
+                reject(report, row.line, row.username, "duplicate email in file");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        Set<String> existingUsernames = existing(accepted, true);
+        Set<String> existingEmails = existing(accepted, false);
+        accepted.removeIf(row -> {
+            if (existingUsernames.contains(row.username)) {
+                reject(report, row.line, row.username, "username already exists");
+                return true;
+            }
+            if (existingEmails.contains(row.email)) {
+                reject(report, row.line, row.username, "email already exists");
+                return true;
+            }
+            return false;
+        });
+
+        if (accepted.isEmpty()) return;
+
+        List<String> hashes;
+        try {
+            hashes = passwordHashingService.encodeAll(accepted.stream().map(row -> row.dto.getPassword()).toList());
+        } catch (HashingUnavailableException e) {
+            log.warn("Password hashing unavailable, rejecting a batch of {} rows", accepted.size());
+            accepted.forEach(row -> reject(report, row.line, row.username, "password hashing unavailable, retry this row"));
+            return;
+        }
+
+        List<UserEntity> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            users.add(toEntity(accepted.get(i), hashes.get(i)));
+        }
+
+        try {
+            insert(users);
+            invalidationChannel.usersCreated(users);
+            report.setImported(report.getImported() + users.size());
+        } catch (RuntimeException batchFailure) {
+            log.debug("Batch insert failed, retrying row by row: {}", batchFailure.getMessage());
+
+            for (int i = 0; i < users.size(); i++) {
+                var user = users.get(i);
+                user.setId(null);
+                try {
+                    insert(List.of(user));
+                    invalidationChannel.usersCreated(List.of(user));
+                    report.setImported(report.getImported() + 1);
+                } catch (RuntimeException e) {
+                    reject(report, accepted.get(i).line, user.getUsername(), isUniqueViolation(e)
+                            ? "username or email already exists"
+                            : "could not be saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<UserEntity> users) {
+        var transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            users.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // The Postgres dialect leaves the kind as OTHER, so the standard SQLState is checked too
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                        || UNIQUE_VIOLATION.equals(violation.getSQLState());
+            }
+        }
+        return false;
+    }
+
+    private Set<String> existing(List<Row> rows, boolean username) {
+        List<String> candidates = rows.stream()
+                .map(row -> username ? row.username : row.email)
+                .filter(value -> username ? existenceIndex.mightContainUsername(value) : existenceIndex.mightContainEmail(value))
+                .toList();
+
+        if (candidates.isEmpty()) return Set.of();
+
+        return new HashSet<>(username
+                ? userRepository.findExistingUsernames(candidates)
+                : userRepository.findExistingEmails(candidates));
+    }
+
+    private String validate(Row row) {
+        Set<ConstraintViolation<UserImportRowDto>> violations = validator.validate(row.dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        if (row.dto.getRole() != null && !row.dto.getRole().isBlank() && UserRoles.getRole(row.dto.getRole().trim()) == null) {
+            return "role is not valid";
+        }
+
+        row.username = UserNormalizer.username(row.dto.getUsername());
+        row.email = UserNormalizer.email(row.dto.getEmail());
+        return null;
+    }
+
+    private UserEntity toEntity(Row row, String passwordHash) {
+        var user = new UserEntity();
+        user.setUsername(row.username);
+        user.setEmail(row.email);
+        user.setPassword(passwordHash);
+        user.setName(Optional.ofNullable(row.dto.getName())
+                .map(String::trim)
+                .filter(s -> !s.isBlank())
+                .map(String::toLowerCase)
+                .orElse(null));
+
+        var role = row.dto.getRole() == null ? null : UserRoles.getRole(row.dto.getRole().trim());
+        user.setRole(role == null ? UserRoles.USER : role);
+
+        return user;
+    }
+
+    private void reject(UserImportReportDto report, long line, String username, String reason) {
+        report.setFailed(report.getFailed() + 1);
+
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new UserImportErrorDto(line, username, reason));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static int[] csvColumns(String header) {
+        if (header == null) throw new InvalidImportFileException("CSV header is missing");
+
+        String[] names = header.split(",", -1);
+        int[] columns = new int[CSV_COLUMNS.size()];
+        Arrays.fill(columns, -1);
+
+        for (int i = 0; i < names.length; i++) {
+            int column = CSV_COLUMNS.indexOf(names[i].trim().toLowerCase());
+            if (column >= 0) columns[column] = i;
+        }
+
+        for (int i = 0; i < 3; i++) {
+            if (columns[i] < 0) throw new InvalidImportFileException("CSV header must contain " + CSV_COLUMNS.get(i));
+        }
+
+        return columns;
+    }
+
+    private static UserImportRowDto parseCsv(String line, int[] columns) {
+        List<String> values = splitCsv(line);
+
+        var dto = new UserImportRowDto();
+        dto.setUsername(column(values, columns[0]));
+        dto.setEmail(column(values, columns[1]));
+        dto.setPassword(column(values, columns[2]));
+        dto.setName(column(values, columns[3]));
+        dto.setRole(column(values, columns[4]));
+
+        return dto;
+    }
+
+    private static String column(List<String> values, int index) {
+        return index >= 0 && index < values.size() ? values.get(index) : null;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>(CSV_COLUMNS.size());
+        var current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted value");
+        values.add(current.toString());
+
+        return values;
+    }
+
+    private static final class Row {
+        private final long line;
+        private final UserImportRowDto dto;
+        private String username;
+        private String email;
+
+        private Row(long line, UserImportRowDto dto) {
+            this.line = line;
+            this.dto = dto;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.github.alideweb.stuffshop.modules.user;
+
+import com.github.alideweb.stuffshop.common.datasource.ReadYourWrites;
+import com.github.alideweb.stuffshop.modules.jwt.TokenRevocationRegistry;
+import com.github.alideweb.stuffshop.modules.user.entity.UserEntity;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the per-node user caches of every instance coherent through Postgres {@code LISTEN/NOTIFY}. Mutations are
+ * applied locally and published as one short notification per user; inside a transaction Postgres only delivers
+ * them on commit. A listener thread holds one pooled connection and applies other nodes' events. It round-trips a
+ * heartbeat through the channel, and when that or the connection fails it reconnects and drops all local user state,
+ * since notifications sent while nobody was listening are lost. Evicted users are read from the primary for a short
+ * while, so a lagging replica cannot put the old row straight back into the cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserInvalidationChannel implements MeterBinder {
+    static final String CHANNEL = "user_invalidation";
+
+    private static final String CREATED = "c";
+    private static final String REVOKED = "r";
+    private static final String HEARTBEAT = "h";
+    private static final char SEPARATOR = '\t';
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserCache userCache;
+    private final UserExistenceIndex existenceIndex;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final ReadYourWrites readYourWrites;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    @Value("${users.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${users.invalidation.pollMillis:500}")
+    private int pollMillis;
+
+    @Value("${users.invalidation.heartbeatMillis:10000}")
+    private long heartbeatMillis;
+
+    @Value("${users.invalidation.reconnectMillis:1000}")
+    private long reconnectMillis;
+
+    private volatile boolean running;
+    private Thread listener;
+    private long heartbeats;
+
+    public void usersCreated(List<UserEntity> users) {
+        users.forEach(user -> {
+            existenceIndex.add(user.getUsername(), user.getEmail());
+            evict(user.getUsername());
+        });
+
+        publish(users.stream().map(user -> CREATED + SEPARATOR + user.getEmail() + SEPARATOR + user.getUsername()).toList());
+    }
+
+    public void tokensRevoked(String username, Instant revokedAt) {
+        revocationRegistry.revoke(username, revokedAt);
+        evict(username);
+
+        publish(List.of(REVOKED + SEPARATOR + revokedAt.toEpochMilli() + SEPARATOR + username));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+
+        running = true;
+        listener = new Thread(this::listen, "user-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) listener.join(pollMillis * 2L);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("users.invalidations", published, LongAdder::sum)
+                .tag("direction", "published")
+                .description("User invalidation events exchanged with other nodes")
+                .register(registry);
+        FunctionCounter.builder("users.invalidations", received, LongAdder::sum)
+                .tag("direction", "received")
+                .description("User invalidation events exchanged with other nodes")
+                .register(registry);
+        FunctionCounter.builder("users.invalidation.resyncs", resyncs, LongAdder::sum)
+                .description("Full resyncs after the invalidation listener lost its connection")
+                .register(registry);
+    }
+
+    private void publish(List<String> payloads) {
+        if (!enabled || payloads.isEmpty()) return;
+
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (var statement = connection.prepareStatement("select count(pg_notify(?, payload)) from unnest(?) as payload")) {
+                    statement.setString(1, CHANNEL);
+                    statement.setArray(2, connection.createArrayOf("text", payloads.toArray()));
+                    statement.executeQuery().close();
+                }
+                return null;
+            });
+            published.add(payloads.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not publish {} user invalidations, other nodes stay stale until their caches expire: {}",
+                    payloads.size(), e.getMessage());
+        }
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                if (connectedBefore) resync();
+                connectedBefore = true;
+
+                receive(connection, connection.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                if (!running) return;
+
+                log.warn("User invalidation listener lost its connection, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(reconnectMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(Connection connection, PGConnection pgConnection) throws SQLException {
+        String awaitedHeartbeat = null;
+        long nextHeartbeat = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    if (notification.getParameter().equals(awaitedHeartbeat)) {
+                        awaitedHeartbeat = null;
+                    } else {
+                        apply(notification.getParameter());
+                    }
+                }
+            }
+
+            if (System.nanoTime() - nextHeartbeat >= 0) {
+                if (awaitedHeartbeat != null) throw new SQLException("Heartbeat " + awaitedHeartbeat + " was never delivered");
+
+                awaitedHeartbeat = HEARTBEAT + SEPARATOR + nodeId + SEPARATOR + ++heartbeats;
+                try (var statement = connection.prepareStatement("select pg_notify(?, ?)")) {
+                    statement.setString(1, CHANNEL);
+                    statement.setString(2, awaitedHeartbeat);
+                    statement.executeQuery().close();
+                }
+                nextHeartbeat = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        String[] fields = payload.split(String.valueOf(SEPARATOR), 3);
+        if (fields.length < 3) {
+            log.debug("Ignoring malformed user invalidation '{}'", payload);
+            return;
+        }
+
+        try {
+            switch (fields[0]) {
+                case CREATED -> {
+                    existenceIndex.add(fields[2], fields[1]);
+                    evict(fields[2]);
+                }
+                case REVOKED -> {
+                    revocationRegistry.revoke(fields[2], Instant.ofEpochMilli(Long.parseLong(fields[1])));
+                    evict(fields[2]);
+                }
+                case HEARTBEAT -> {
+                    return;
+                }
+                default -> {
+                    log.debug("Ignoring unknown user invalidation '{}'", payload);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not apply user invalidation '{}': {}", payload, e.getMessage());
+            return;
+        }
+
+        received.increment();
+    }
+
+    private void evict(String username) {
+        readYourWrites.recordWrite(username);
+        userCache.invalidate(username);
+    }
+
+    private void resync() {
+        resyncs.increment();
+        userCache.invalidateAll();
+        revocationRegistry.resync();
+        log.info("User invalidation listener reconnected, dropped cached users and reloaded token revocations");
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.alideweb.stuffshop.modules.user;
+
+public final class UserNormalizer {
+    private UserNormalizer() {
+    }
+
+    public static String username(String username) {
+        return username.trim().toLowerCase().replace(" ", "_");
+    }
+
+    public static String email(String email) {
+        return email.trim().toLowerCase();
+    }
+}
@@ -1,12 +1,31 @@
 package com.github.alideweb.stuffshop.modules.user;
 
+import com.github.alideweb.stuffshop.modules.user.entity.TokenRevocation;
 import com.github.alideweb.stuffshop.modules.user.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    boolean existsByEmail(String email);
+
+    @Query("select u.username from UserEntity u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from UserEntity u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.username as username, u.tokensRevokedAt as tokensRevokedAt from UserEntity u where u.tokensRevokedAt > :since")
+    List<TokenRevocation> findTokenRevocationsSince(@Param("since") Instant since);
 }
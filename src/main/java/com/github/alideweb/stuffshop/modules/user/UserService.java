@@ -1,25 +1,109 @@
 package com.github.alideweb.stuffshop.modules.user;
 
+import com.github.alideweb.stuffshop.common.datasource.ReadYourWrites;
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.exceptions.InvalidCredentialsException;
+import com.github.alideweb.stuffshop.exceptions.UserAlreadyExistsException;
 import com.github.alideweb.stuffshop.exceptions.UserNotFoundException;
+import com.github.alideweb.stuffshop.modules.password.PasswordHashingService;
 import com.github.alideweb.stuffshop.modules.user.entity.UserEntity;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserCache userCache;
+    private final UserExistenceIndex existenceIndex;
+    private final UserInvalidationChannel invalidationChannel;
+    private final ReadYourWrites readYourWrites;
+    private final PipelineMetrics pipelineMetrics;
 
     public UserEntity findByUsername(String username) throws UserNotFoundException {
-        return userRepository.findByUsername(username)
+        return userCache.get(username, this::loadUser)
                 .orElseThrow(() -> new UserNotFoundException(username));
     }
 
-    public UserEntity registerUser(UserEntity user) {
-        String encodedPassword = passwordEncoder.encode(user.getPassword());
+    public UserEntity authenticate(String username, String rawPassword) throws InvalidCredentialsException {
+        var user = userCache.get(username, this::loadUser).orElse(null);
+        if (user == null) {
+            passwordHashingService.matchNothing(rawPassword);
+            throw new InvalidCredentialsException();
+        }
+
+        if (!passwordHashingService.matches(rawPassword, user.getPassword())) {
+            throw new InvalidCredentialsException();
+        }
+
+        return user;
+    }
+
+    public UserEntity registerUser(UserEntity user) throws UserAlreadyExistsException {
+        ensureAvailable(user.getUsername(), user.getEmail());
+
+        String encodedPassword = passwordHashingService.encode(user.getPassword());
         user.setPassword(encodedPassword);
-        return userRepository.save(user);
+
+        UserEntity saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new UserAlreadyExistsException("username or email");
+        }
+
+        invalidationChannel.usersCreated(List.of(saved));
+
+        return saved;
+    }
+
+    @Transactional
+    public UserEntity changeRole(String username, UserRoles role) throws UserNotFoundException {
+        var user = loadForUpdate(username);
+        user.setRole(role);
+
+        return revokeTokens(user);
+    }
+
+    @Transactional
+    public void revokeTokens(String username) throws UserNotFoundException {
+        revokeTokens(loadForUpdate(username));
+    }
+
+    private void ensureAvailable(String username, String email) throws UserAlreadyExistsException {
+        if (existenceIndex.mightContainUsername(username) && userRepository.existsByUsername(username)) {
+            throw new UserAlreadyExistsException("username");
+        }
+
+        if (existenceIndex.mightContainEmail(email) && userRepository.existsByEmail(email)) {
+            throw new UserAlreadyExistsException("email");
+        }
+    }
+
+    private Optional<UserEntity> loadUser(String username) {
+        return pipelineMetrics.getUserLoad().record(() -> readYourWrites.readAs(username, () -> userRepository.findByUsername(username)));
+    }
+
+    private UserEntity loadForUpdate(String username) throws UserNotFoundException {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException(username));
+    }
+
+    private UserEntity revokeTokens(UserEntity user) {
+        var revokedAt = Instant.now();
+        user.setTokensRevokedAt(revokedAt);
+
+        var saved = userRepository.save(user);
+        invalidationChannel.tokensRevoked(saved.getUsername(), revokedAt);
+
+        return saved;
     }
 }
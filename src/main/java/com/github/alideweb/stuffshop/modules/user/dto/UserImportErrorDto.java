@@ -0,0 +1,12 @@
+package com.github.alideweb.stuffshop.modules.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserImportErrorDto {
+    private long line;
+    private String username;
+    private String reason;
+}
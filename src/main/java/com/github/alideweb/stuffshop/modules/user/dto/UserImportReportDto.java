@@ -0,0 +1,15 @@
+package com.github.alideweb.stuffshop.modules.user.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class UserImportReportDto {
+    private long total;
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private List<UserImportErrorDto> errors = new ArrayList<>();
+}
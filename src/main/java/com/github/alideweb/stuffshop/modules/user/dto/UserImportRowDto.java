@@ -0,0 +1,22 @@
+package com.github.alideweb.stuffshop.modules.user.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class UserImportRowDto {
+    @NotBlank
+    private String username;
+
+    @NotBlank
+    @Email
+    private String email;
+
+    @NotBlank
+    private String password;
+
+    private String name;
+
+    private String role;
+}
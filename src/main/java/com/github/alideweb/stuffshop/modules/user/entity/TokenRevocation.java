@@ -0,0 +1,9 @@
+package com.github.alideweb.stuffshop.modules.user.entity;
+
+import java.time.Instant;
+
+public interface TokenRevocation {
+    String getUsername();
+
+    Instant getTokensRevokedAt();
+}
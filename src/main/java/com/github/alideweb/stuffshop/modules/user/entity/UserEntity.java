@@ -5,6 +5,8 @@ import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "Users")
 @NoArgsConstructor
@@ -25,4 +27,7 @@ public class UserEntity extends BaseEntity {
     private String password;
 
     private String name;
+
+    @Column(name = "tokens_revoked_at")
+    private Instant tokensRevokedAt;
 }
@@ -0,0 +1,20 @@
+package com.github.alideweb.stuffshop.modules.user.enums;
+
+public enum UserFileFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    UserFileFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static UserFileFormat fromContentType(String contentType) {
+        return contentType != null && contentType.startsWith(CSV.contentType) ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,11 @@
+create table if not exists users
+(
+    id         bigint generated by default as identity primary key,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    username   varchar(255) not null unique,
+    email      varchar(255) not null unique,
+    role       varchar(255) not null check (role in ('ADMIN', 'USER')),
+    password   varchar(255) not null,
+    name       varchar(255)
+);
@@ -0,0 +1,4 @@
+-- Ids now come from a shared sequence handed out in blocks of 50 (Hibernate pooled-lo),
+-- which lets Hibernate batch inserts. Start it after the ids already issued by the identity column.
+create sequence if not exists entity_id_seq start with 1 increment by 50;
+select setval('entity_id_seq', (select coalesce(max(id), 0) + 1 from users), false);
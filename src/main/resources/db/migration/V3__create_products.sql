@@ -0,0 +1,13 @@
+create table if not exists products
+(
+    id          bigint primary key,
+    created_at  timestamp(6),
+    updated_at  timestamp(6),
+    name        varchar(255)   not null,
+    description varchar(2000),
+    category    varchar(100)   not null,
+    price       numeric(12, 2) not null check (price >= 0),
+    active      boolean        not null default true
+);
+
+create index if not exists idx_products_category on products (category);
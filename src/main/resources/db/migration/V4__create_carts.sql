@@ -0,0 +1,13 @@
+create table if not exists carts
+(
+    username   varchar(255)                not null primary key,
+    updated_at timestamp(6) with time zone not null
+);
+
+create table if not exists cart_items
+(
+    username   varchar(255) not null references carts (username) on delete cascade,
+    product_id bigint       not null references products (id),
+    quantity   integer      not null check (quantity > 0),
+    primary key (username, product_id)
+);
@@ -0,0 +1,34 @@
+create table if not exists inventory
+(
+    product_id bigint not null primary key references products (id),
+    available  bigint not null check (available >= 0),
+    version    bigint not null default 0
+);
+
+create table if not exists orders
+(
+    id            bigint                      not null primary key,
+    created_at    timestamp(6),
+    updated_at    timestamp(6),
+    username      varchar(255)                not null,
+    status        varchar(20)                 not null check (status in ('PENDING', 'CONFIRMED', 'CANCELLED', 'EXPIRED')),
+    total         numeric(12, 2)              not null,
+    expires_at    timestamp(6) with time zone not null,
+    stock_applied boolean                     not null default false
+);
+
+create index if not exists idx_orders_username on orders (username);
+create index if not exists idx_orders_status_stock_applied on orders (status, stock_applied);
+
+create table if not exists order_items
+(
+    id         bigint         not null primary key,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    order_id   bigint         not null references orders (id) on delete cascade,
+    product_id bigint         not null references products (id),
+    quantity   integer        not null check (quantity > 0),
+    price      numeric(12, 2) not null
+);
+
+create index if not exists idx_order_items_order_id on order_items (order_id);
@@ -0,0 +1,4 @@
+-- Databases baselined at V1 predate the column unless Hibernate's ddl-auto=update already added it
+alter table users add column if not exists tokens_revoked_at timestamp(6) with time zone;
+
+create index if not exists idx_users_tokens_revoked_at on users (tokens_revoked_at);
@@ -0,0 +1,175 @@
+package com.github.alideweb.stuffshop.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicaRoutingDataSourceTest {
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    private HikariDataSource replica1;
+    private HikariDataSource replica2;
+    private ReadYourWrites readYourWrites;
+    private ReplicaRoutingDataSource router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        HikariDataSource primary = database("primary");
+        replica1 = database("replica-1");
+        replica2 = database("replica-2");
+
+        readYourWrites = new ReadYourWrites();
+        ReflectionTestUtils.setField(readYourWrites, "windowMillis", 60_000L);
+        ReflectionTestUtils.setField(readYourWrites, "maxTrackedWriters", 1_000L);
+        readYourWrites.init();
+
+        router = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica-1", replica1), new ReplicaRoutingDataSource.Replica("replica-2", replica2)),
+                readYourWrites, 1_000, "select lag_millis from replication_status");
+        router.checkLag();
+
+        var dataSource = new LazyConnectionDataSourceProxy(new WriteTrackingDataSource(primary, readYourWrites));
+        dataSource.setReadOnlyDataSource(router);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicasAndWritesToThePrimary() {
+        assertThat(readOnlyNode()).startsWith("replica-");
+        assertThat(readWriteNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void idleReplicasAreUsedInTurn() {
+        assertThat(readOnlyNodes(4)).containsExactlyInAnyOrder("replica-1", "replica-2");
+    }
+
+    @Test
+    void busyReplicaIsSkipped() throws Exception {
+        try (Connection ignored = replica1.getConnection()) {
+            assertThat(readOnlyNodes(4)).containsExactly("replica-2");
+        }
+    }
+
+    @Test
+    void laggingReplicasLeaveTheRotation() {
+        setLag(replica1, 5_000);
+        router.checkLag();
+        assertThat(readOnlyNodes(4)).containsExactly("replica-2");
+
+        setLag(replica2, 5_000);
+        router.checkLag();
+        assertThat(readOnlyNodes(4)).containsExactly("primary");
+
+        setLag(replica1, 0);
+        router.checkLag();
+        assertThat(readOnlyNodes(4)).containsExactly("replica-1");
+    }
+
+    @Test
+    void unreachableReplicasFallBackToThePrimary() {
+        replica1.close();
+        replica2.close();
+        router.checkLag();
+
+        assertThat(readOnlyNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void authenticatedWriterReadsFromThePrimary() {
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("update node_name set name = name"));
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        authenticate("bob");
+        assertThat(readOnlyNode()).startsWith("replica-");
+    }
+
+    @Test
+    void readsOnBehalfOfARecentWriterUseThePrimary() {
+        readYourWrites.recordWrite("carol");
+
+        assertThat(readYourWrites.readAs("carol", this::readOnlyNode)).isEqualTo("primary");
+        assertThat(readYourWrites.readAs("dave", this::readOnlyNode)).startsWith("replica-");
+        assertThat(readOnlyNode()).startsWith("replica-");
+    }
+
+    @Test
+    void explicitCredentialsAreReportedAsUnsupported() {
+        assertThatThrownBy(() -> router.getConnection("sa", ""))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> jdbcTemplate.queryForObject("select name from node_name", String.class));
+    }
+
+    private String readWriteNode() {
+        return readWrite.execute(status -> jdbcTemplate.queryForObject("select name from node_name", String.class));
+    }
+
+    private Set<String> readOnlyNodes(int reads) {
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < reads; i++) {
+            nodes.add(readOnlyNode());
+        }
+        return nodes;
+    }
+
+    private static void setLag(HikariDataSource database, long lagMillis) {
+        new JdbcTemplate(database).update("update replication_status set lag_millis = ?", lagMillis);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private HikariDataSource database(String name) {
+        var pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(4);
+        pools.add(pool);
+
+        var jdbc = new JdbcTemplate(pool);
+        jdbc.execute("create table node_name (name varchar(32))");
+        jdbc.update("insert into node_name values (?)", name);
+        jdbc.execute("create table replication_status (lag_millis bigint)");
+        jdbc.update("insert into replication_status values (0)");
+
+        return pool;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.alideweb.stuffshop.common.logging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExceptionLogSamplerTest {
+    private static final Logger log = LoggerFactory.getLogger(ExceptionLogSamplerTest.class);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ExceptionLogSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        sampler = new ExceptionLogSampler();
+        ReflectionTestUtils.setField(sampler, "windowSeconds", 60L);
+        ReflectionTestUtils.setField(sampler, "maxPerWindow", 1);
+        sampler.bindTo(registry);
+    }
+
+    @Test
+    void repeatedIdenticalFailuresAreSuppressed() {
+        for (int i = 0; i < 3; i++) {
+            logInternal(failInRepository());
+        }
+
+        assertThat(suppressed()).isEqualTo(2);
+    }
+
+    @Test
+    void floodOfOneFailureDoesNotHideOthersWithTheSameCode() {
+        logInternal(failInRepository());
+        logInternal(failInRepository());
+        logInternal(failInCache());
+        logInternal(new IllegalArgumentException("bad state"));
+
+        assertThat(suppressed()).isEqualTo(1);
+    }
+
+    private void logInternal(Exception ex) {
+        sampler.log(log, HttpStatus.INTERNAL_SERVER_ERROR, "ERR_INTERNAL", ex, "Unexpected error: {}", ex.getMessage());
+    }
+
+    private double suppressed() {
+        return registry.get("logging.exceptions.suppressed").functionCounter().count();
+    }
+
+    private static IllegalStateException failInRepository() {
+        return new IllegalStateException("connection refused");
+    }
+
+    private static IllegalStateException failInCache() {
+        return new IllegalStateException("cache unavailable");
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.alideweb.stuffshop.exceptions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.net.URI;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorResponseRendererTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ErrorResponseRenderer renderer = new ErrorResponseRenderer();
+
+    static Stream<Arguments> errors() {
+        return Stream.of(
+                Arguments.of(HttpStatus.UNAUTHORIZED, "Unauthorized", "Authentication is required to access this resource", "ERR_UNAUTHORIZED", null, "/products"),
+                Arguments.of(HttpStatus.FORBIDDEN, "Forbidden", "You do not have permission to access this resource", "ERR_FORBIDDEN", null, "/admin/users/%22x%22"),
+                Arguments.of(HttpStatus.BAD_REQUEST, "Validation Failed", null, "ERR_VALIDATION_FAILED", "email: must be a \"well-formed\" email\naddress\t\\ é ☃ 🛒 \u0001", "/auth/sign-up"),
+                Arguments.of(HttpStatus.BAD_REQUEST, "Constraint Violation", null, "ERR_CONSTRAINT_VIOLATION", "", "/auth/sign-up"),
+                Arguments.of(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error", null, "ERR_INTERNAL", null, "/cart")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("errors")
+    void rendersTheSameBytesAsJackson(HttpStatus status, String title, String staticDetail, String code, String detail, String path) throws Exception {
+        ProblemDetail pd = ProblemDetail.forStatus(status);
+        pd.setTitle(title);
+        pd.setDetail(staticDetail != null ? staticDetail : detail);
+        pd.setInstance(URI.create(path));
+        pd.setProperty("code", code);
+
+        byte[] expected = objectMapper.writeValueAsBytes(pd);
+        byte[] actual = renderer.template(code).render(detail, path);
+
+        assertThat(new String(actual, "UTF-8")).isEqualTo(new String(expected, "UTF-8"));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @MethodSource("errors")
+    void rendersBaseHttpExceptionsLikeTheMapperDid(HttpStatus status, String title, String staticDetail, String code, String detail, String path) throws Exception {
+        var ex = new UserNotFoundException("ali \"" + code + "\"");
+
+        ProblemDetail pd = ProblemDetail.forStatus(ex.getStatus());
+        pd.setTitle("Error: " + ex.getErrorCode());
+        pd.setDetail(ex.getMessage());
+        pd.setInstance(URI.create(path));
+        pd.setProperty("code", ex.getErrorCode());
+
+        assertThat(renderer.template(ex).render(ex.getMessage(), path)).isEqualTo(objectMapper.writeValueAsBytes(pd));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "none", value = {
+            "none|application/problem+json",
+            "*/*|application/problem+json",
+            "application/json|application/json",
+            "application/json, text/plain|application/json",
+            "application/problem+json|application/problem+json",
+            "application/problem+json;q=0.5, application/json|application/json",
+            "application/json;q=0.5, application/*|application/problem+json",
+            "text/html|application/problem+json",
+            "not a media type|application/problem+json"
+    })
+    void choosesTheContentTypeFromAccept(String accept, String expected) {
+        var request = new MockHttpServletRequest("GET", "/products");
+        if (accept != null) request.addHeader("Accept", accept);
+
+        var response = renderer.toResponse(renderer.template("ERR_INTERNAL"), null, request);
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType(expected));
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.alideweb.stuffshop.filters;
+
+import com.github.alideweb.stuffshop.common.etag.ResourceVersionProvider;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalGetFilterTest {
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger renders = new AtomicInteger();
+    private ConditionalGetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConditionalGetFilter(List.of(new ResourceVersionProvider() {
+            @Override
+            public String version(HttpServletRequest request) {
+                return request.getRequestURI().startsWith("/products") ? String.valueOf(version.get()) : null;
+            }
+
+            @Override
+            public CacheControl cacheControl() {
+                return CacheControl.noCache().cachePublic();
+            }
+        }));
+        ReflectionTestUtils.setField(filter, "maxSize", 100L);
+        filter.init();
+    }
+
+    @Test
+    void answersAMatchingEtagWithoutRunningTheController() throws Exception {
+        var first = get("/products", null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getContentAsString()).isEqualTo("body-0");
+        assertThat(etag).startsWith("W/\"").endsWith("\"");
+        assertThat(first.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache, public");
+
+        var second = get("/products", etag);
+
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getContentAsByteArray()).isEmpty();
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(renders.get()).isEqualTo(1);
+    }
+
+    @Test
+    void aNewVersionRendersAgain() throws Exception {
+        String etag = get("/products", null).getHeader(HttpHeaders.ETAG);
+        version.incrementAndGet();
+
+        var changed = get("/products", etag);
+
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getContentAsString()).isEqualTo("body-1");
+        assertThat(changed.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(renders.get()).isEqualTo(2);
+    }
+
+    @Test
+    void uncoveredRequestsPassThrough() throws Exception {
+        var response = get("/cart", "\"anything\"");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+
+    @Test
+    void tomcatStillCompressesTaggedResponses() throws Exception {
+        var compression = new Compression();
+        compression.setEnabled(true);
+        compression.setMinResponseSize(DataSize.ofKilobytes(2));
+        compression.setMimeTypes(new String[]{"application/json"});
+
+        var factory = new TomcatServletWebServerFactory(0);
+        factory.setCompression(compression);
+        String body = "[" + "{\"name\":\"teapot\"},".repeat(500) + "{}]";
+
+        WebServer server = factory.getWebServer(context -> {
+            context.addFilter("conditionalGet", filter).addMappingForUrlPatterns(null, false, "/*");
+            context.addServlet("products", new HttpServlet() {
+                @Override
+                protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                    response.setContentType("application/json");
+                    response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }).addMapping("/*");
+        });
+        server.start();
+
+        try {
+            var client = HttpClient.newHttpClient();
+            var request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/products"))
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+            var response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            String etag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+            try (var gzip = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+                assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+            }
+
+            var conditional = client.send(request.header(HttpHeaders.IF_NONE_MATCH, etag).build(), HttpResponse.BodyHandlers.discarding());
+            assertThat(conditional.statusCode()).isEqualTo(304);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch) throws Exception {
+        var request = new MockHttpServletRequest("GET", path);
+        if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            renders.incrementAndGet();
+            res.getOutputStream().write(("body-" + version.get()).getBytes(StandardCharsets.UTF_8));
+        });
+
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.alideweb.stuffshop.loadtest;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outermost servlet filter that sums the bytes each request thread allocates while the request is handled, grouped
+ * by the scenario header the load generator sends. Work handed off to other executors, such as password hashing, is
+ * not included.
+ */
+final class AllocationProbe implements Filter {
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+
+    AllocationProbe() {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM cannot report per-thread allocation");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        String scenario = ((HttpServletRequest) request).getHeader(OpenModelLoadGenerator.SCENARIO_HEADER);
+        if (scenario == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            var scenarioTotals = totals.computeIfAbsent(scenario, key -> new Totals());
+            scenarioTotals.bytes.add(threads.getCurrentThreadAllocatedBytes() - before);
+            scenarioTotals.requests.increment();
+        }
+    }
+
+    long bytesPerRequest(String scenario) {
+        var scenarioTotals = totals.get(scenario);
+        if (scenarioTotals == null || scenarioTotals.requests.sum() == 0) return 0;
+
+        return scenarioTotals.bytes.sum() / scenarioTotals.requests.sum();
+    }
+
+    long bytesPerRequest() {
+        long bytes = totals.values().stream().mapToLong(scenarioTotals -> scenarioTotals.bytes.sum()).sum();
+        long requests = totals.values().stream().mapToLong(scenarioTotals -> scenarioTotals.requests.sum()).sum();
+
+        return requests == 0 ? 0 : bytes / requests;
+    }
+
+    void reset() {
+        totals.clear();
+    }
+
+    private static final class Totals {
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.alideweb.stuffshop.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+record LoadReport(double targetRate,
+                  double throughput,
+                  long durationMillis,
+                  List<ScenarioReport> scenarios,
+                  ScenarioReport total) {
+
+    static LoadReport of(OpenModelLoadGenerator.Run run, AllocationProbe allocationProbe) {
+        var scenarios = new ArrayList<ScenarioReport>();
+        var latencies = new Histogram(3);
+        var statuses = new TreeMap<String, Long>();
+        long errors = 0;
+
+        for (ScenarioStats stats : run.scenarios()) {
+            scenarios.add(ScenarioReport.of(stats.getName(), stats.getLatencies(), stats.getErrors(),
+                    stats.getStatuses(), allocationProbe.bytesPerRequest(stats.getName())));
+
+            latencies.add(stats.getLatencies());
+            stats.getStatuses().forEach((status, count) -> statuses.merge(status, count, Long::sum));
+            errors += stats.getErrors();
+        }
+
+        var total = ScenarioReport.of("total", latencies, errors, statuses, allocationProbe.bytesPerRequest());
+        double seconds = run.elapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+
+        return new LoadReport(run.targetRate(), total.requests() / seconds,
+                TimeUnit.NANOSECONDS.toMillis(run.elapsedNanos()), scenarios, total);
+    }
+
+    String format() {
+        var out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "target %.0f req/s, achieved %.1f req/s over %d ms%n",
+                targetRate, throughput, durationMillis));
+        out.append(String.format(Locale.ROOT, "%-16s %9s %8s %8s %9s %9s %9s %9s %12s  %s%n",
+                "scenario", "requests", "errors", "error%", "p50 ms", "p99 ms", "p999 ms", "max ms", "alloc B/req", "statuses"));
+
+        for (ScenarioReport scenario : scenarios) {
+            out.append(scenario.format());
+        }
+
+        return out.append(total.format()).toString();
+    }
+
+    record ScenarioReport(String name,
+                          long requests,
+                          long errors,
+                          double errorRate,
+                          double p50Millis,
+                          double p99Millis,
+                          double p999Millis,
+                          double maxMillis,
+                          long allocatedBytesPerRequest,
+                          Map<String, Long> statuses) {
+
+        static ScenarioReport of(String name, Histogram latencies, long errors, Map<String, Long> statuses, long allocated) {
+            long requests = latencies.getTotalCount();
+
+            return new ScenarioReport(
+                    name,
+                    requests,
+                    errors,
+                    requests == 0 ? 0 : (double) errors / requests,
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()),
+                    allocated,
+                    statuses
+            );
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%-16s %9d %8d %7.2f%% %9.2f %9.2f %9.2f %9.2f %12d  %s%n",
+                    name, requests, errors, errorRate * 100, p50Millis, p99Millis, p999Millis, maxMillis,
+                    allocatedBytesPerRequest, statuses);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.alideweb.stuffshop.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a constant arrival rate regardless of how fast the server answers. Request {@code i} is due at
+ * {@code start + i / rate} and its latency is measured from that instant rather than from when it was actually sent,
+ * so a stalled server shows up as queueing delay instead of silently lowering the offered load. Requests that would
+ * exceed {@code maxInFlight} are not sent and count as errors.
+ */
+final class OpenModelLoadGenerator {
+    static final String SCENARIO_HEADER = "X-Load-Scenario";
+
+    private final HttpClient client;
+    private final List<Scenario> scenarios;
+    private final int[] cumulativeWeights;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+
+    OpenModelLoadGenerator(HttpClient client, List<Scenario> scenarios, Duration requestTimeout, int maxInFlight) {
+        this.client = client;
+        this.scenarios = List.copyOf(scenarios);
+        this.cumulativeWeights = new int[scenarios.size()];
+        this.requestTimeout = requestTimeout;
+        this.maxInFlight = maxInFlight;
+
+        int total = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            total += scenarios.get(i).weight();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    Run run(double ratePerSecond, Duration duration, long seed) throws InterruptedException {
+        Map<String, ScenarioStats> stats = new LinkedHashMap<>();
+        scenarios.forEach(scenario -> stats.put(scenario.name(), new ScenarioStats(scenario.name())));
+
+        var random = new SplittableRandom(seed);
+        var inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = Math.round(ratePerSecond * duration.toNanos() / TimeUnit.SECONDS.toNanos(1));
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + Math.round(i * intervalNanos);
+            awaitUntil(intended);
+
+            var scenario = pick(random);
+            var scenarioStats = stats.get(scenario.name());
+
+            if (!inFlight.tryAcquire()) {
+                scenarioStats.record(System.nanoTime() - intended, ScenarioStats.NO_RESPONSE, false);
+                continue;
+            }
+
+            HttpRequest request = scenario.request().apply(random)
+                    .header(SCENARIO_HEADER, scenario.name())
+                    .timeout(requestTimeout)
+                    .build();
+
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        int status = response == null ? ScenarioStats.NO_RESPONSE : response.statusCode();
+                        scenarioStats.record(System.nanoTime() - intended, status, status == scenario.expectedStatus());
+                        inFlight.release();
+                    });
+        }
+
+        if (!inFlight.tryAcquire(maxInFlight, requestTimeout.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Requests still in flight after " + requestTimeout.multipliedBy(2));
+        }
+        inFlight.release(maxInFlight);
+
+        return new Run(ratePerSecond, System.nanoTime() - start, List.copyOf(stats.values()));
+    }
+
+    private Scenario pick(SplittableRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) return scenarios.get(i);
+        }
+
+        throw new IllegalStateException("Weights do not cover " + value);
+    }
+
+    private static void awaitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    record Run(double targetRate, long elapsedNanos, List<ScenarioStats> scenarios) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.alideweb.stuffshop.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+record Scenario(String name, int weight, int expectedStatus, Function<SplittableRandom, HttpRequest.Builder> request) {
+}
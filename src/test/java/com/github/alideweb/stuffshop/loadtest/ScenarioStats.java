@@ -0,0 +1,51 @@
+package com.github.alideweb.stuffshop.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class ScenarioStats {
+    static final int NO_RESPONSE = -1;
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    ScenarioStats(String name) {
+        this.name = name;
+    }
+
+    void record(long latencyNanos, int status, boolean expected) {
+        latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (!expected) errors.increment();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Histogram getLatencies() {
+        return latencies;
+    }
+
+    long getRequests() {
+        return latencies.getTotalCount();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    Map<String, Long> getStatuses() {
+        var counts = new TreeMap<String, Long>();
+        statuses.forEach((status, count) -> counts.put(status == NO_RESPONSE ? "none" : String.valueOf(status), count.sum()));
+        return counts;
+    }
+}
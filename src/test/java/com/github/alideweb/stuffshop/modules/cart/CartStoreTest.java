@@ -0,0 +1,186 @@
+package com.github.alideweb.stuffshop.modules.cart;
+
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartStoreTest {
+    @Test
+    void failedFlushIsNotRetriedInTheSameRun() {
+        var db = new FakeCarts();
+        var store = store(db, 10, 60_000);
+        db.failing = true;
+
+        addItem(store, "alice");
+        addItem(store, "bob");
+        store.flushPending();
+
+        assertThat(db.attempts).isEqualTo(1);
+        assertThat(db.saved).isEmpty();
+    }
+
+    @Test
+    void flushingPausesAfterAFailure() {
+        var db = new FakeCarts();
+        var store = store(db, 1, 60_000);
+        db.failing = true;
+
+        addItem(store, "alice");
+        store.flushPending();
+        db.failing = false;
+        store.flushPending();
+        addItem(store, "bob");
+
+        assertThat(db.attempts).isEqualTo(1);
+        assertThat(db.saved).isEmpty();
+    }
+
+    @Test
+    void requeuedCartsAreSavedOnceTheDatabaseRecovers() {
+        var db = new FakeCarts();
+        var store = store(db, 10, 0);
+        db.failing = true;
+
+        addItem(store, "alice");
+        addItem(store, "bob");
+        store.flushPending();
+        db.failing = false;
+        store.flushPending();
+
+        assertThat(db.saved).containsExactlyInAnyOrder("alice", "bob");
+    }
+
+    @Test
+    void fullQueueLeavesTheWriteToTheScheduler() {
+        var db = new FakeCarts();
+        var store = store(db, 1, 0);
+
+        addItem(store, "alice");
+        addItem(store, "bob");
+        addItem(store, "carol");
+        assertThat(db.attempts).isZero();
+
+        store.flushPending();
+        assertThat(db.saved).containsExactlyInAnyOrder("alice", "bob", "carol");
+    }
+
+    @Test
+    void cleanCartsBeyondTheMemoryBudgetAreEvictedAndReloaded() {
+        var db = new FakeCarts();
+        var store = store(db, 10, 0);
+        ReflectionTestUtils.setField(store, "stripeCount", 1);
+        store.init();
+        ReflectionTestUtils.setField(store, "stripeBudgetBytes", 2 * cartBytes(1));
+
+        addItem(store, "alice");
+        addItem(store, "bob");
+        store.flushPending();
+        addItem(store, "carol");
+
+        assertThat(cartsInMemory(store)).isEqualTo(2);
+        assertThat(db.loads).containsExactly("alice", "bob", "carol");
+
+        assertThat(store.view("alice")).containsExactly(Map.entry(1L, 1));
+        assertThat(db.loads).containsExactly("alice", "bob", "carol", "alice");
+    }
+
+    @Test
+    void dirtyCartsAreNotEvicted() {
+        var db = new FakeCarts();
+        var store = store(db, 10, 60_000);
+        ReflectionTestUtils.setField(store, "stripeBudgetBytes", cartBytes(1));
+
+        addItem(store, "alice");
+        addItem(store, "bob");
+        addItem(store, "carol");
+
+        assertThat(cartsInMemory(store)).isEqualTo(3);
+    }
+
+    @Test
+    void shutdownFlushesEveryDirtyCart() {
+        var db = new FakeCarts();
+        var store = store(db, 1, 0);
+
+        addItem(store, "alice");
+        addItem(store, "bob");
+        store.flushAll();
+
+        assertThat(db.rows).containsOnlyKeys("alice", "bob");
+    }
+
+    @Test
+    void restartedStoreReadsCartsFromTheDatabase() {
+        var db = new FakeCarts();
+        var store = store(db, 10, 0);
+        addItem(store, "alice");
+        addItem(store, "alice");
+        store.flushAll();
+
+        var restarted = store(db, 10, 0);
+        assertThat(restarted.view("alice")).containsExactly(Map.entry(1L, 2));
+        assertThat(restarted.view("bob")).isEmpty();
+    }
+
+    private static long cartBytes(int items) {
+        return 256 + items * 64L;
+    }
+
+    private static double cartsInMemory(CartStore store) {
+        var registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+        return registry.get("cart.store.size").gauge().value();
+    }
+
+    private static void addItem(CartStore store, String username) {
+        store.mutate(username, items -> {
+            items.merge(1L, 1, Integer::sum);
+            return true;
+        });
+    }
+
+    private static CartStore store(FakeCarts db, int queueLimit, long retryMillis) {
+        var store = new CartStore(db, new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(store, "stripeCount", 4);
+        ReflectionTestUtils.setField(store, "memoryBudgetMb", 1L);
+        ReflectionTestUtils.setField(store, "queueLimit", queueLimit);
+        ReflectionTestUtils.setField(store, "batchSize", 1);
+        ReflectionTestUtils.setField(store, "retryMillis", retryMillis);
+        ReflectionTestUtils.setField(store, "maxRetryMillis", 60_000L);
+        store.init();
+        return store;
+    }
+
+    private static final class FakeCarts extends CartPersistence {
+        private final List<String> saved = new ArrayList<>();
+        private final List<String> loads = new ArrayList<>();
+        private final Map<String, Map<Long, Integer>> rows = new HashMap<>();
+        private boolean failing;
+        private int attempts;
+
+        private FakeCarts() {
+            super(null, null);
+        }
+
+        @Override
+        public Map<Long, Integer> load(String username) {
+            loads.add(username);
+            return rows.getOrDefault(username, Map.of());
+        }
+
+        @Override
+        void save(List<CartSnapshot> carts) {
+            attempts++;
+            if (failing) throw new IllegalStateException("database unavailable");
+            carts.forEach(cart -> {
+                saved.add(cart.username());
+                rows.put(cart.username(), cart.items());
+            });
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.alideweb.stuffshop.modules.health;
+
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.filters.JwtFilters;
+import com.github.alideweb.stuffshop.modules.jwt.JwtService;
+import com.github.alideweb.stuffshop.modules.jwt.TokenRevocationRegistry;
+import com.github.alideweb.stuffshop.modules.user.UserDetailsServiceImpl;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class HealthControllerTest {
+    private JwtService jwtService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtService = new JwtService(new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(jwtService, "secretKey", "jwt-secret-key-for-tests-that-is-longer-than-32-bytes");
+        ReflectionTestUtils.setField(jwtService, "expiresAtInHour", 24);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 0L);
+        ReflectionTestUtils.setField(jwtService, "maxPooledMacs", 4);
+        jwtService.init();
+
+        var filters = new JwtFilters(jwtService, new UserDetailsServiceImpl(null), new TokenRevocationRegistry(null));
+        ReflectionTestUtils.setField(filters, "statelessAuth", true);
+
+        var healthChecker = new HealthChecker(null, null, null);
+        ReflectionTestUtils.setField(healthChecker, "snapshot", new HealthSnapshot(true, Instant.now(),
+                Map.of("db", new HealthSnapshot.Component(true, "connection valid"))));
+
+        var controller = new HealthController(healthChecker);
+        ReflectionTestUtils.setField(controller, "staleAfterMillis", 60_000L);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(filters)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void adminTokenSeesComponentDetails() throws Exception {
+        mockMvc.perform(get("/health/ready").header("Authorization", "Bearer " + jwtService.generateJwtToken("root", UserRoles.ADMIN)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.components.db.detail").value("connection valid"));
+    }
+
+    @Test
+    void otherCallersOnlySeeTheStatus() throws Exception {
+        mockMvc.perform(get("/health/ready").header("Authorization", "Bearer " + jwtService.generateJwtToken("alice", UserRoles.USER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").doesNotExist());
+        SecurityContextHolder.clearContext();
+
+        mockMvc.perform(get("/health/ready"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("ready"))
+                .andExpect(jsonPath("$.data").doesNotExist());
+    }
+}
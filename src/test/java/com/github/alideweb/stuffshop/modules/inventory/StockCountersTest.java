@@ -0,0 +1,278 @@
+package com.github.alideweb.stuffshop.modules.inventory;
+
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.exceptions.OutOfStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockCountersTest {
+    private static final long HOT = 1L;
+    private static final long COLD = 2L;
+
+    @Test
+    void concurrentBuyersNeverOversell(TestReporter reporter) throws Exception {
+        var db = new FakeInventory(Map.of(HOT, 1_000L, COLD, 1_000_000L));
+        var counters = counters(db);
+
+        int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        int attemptsPerThread = 20_000;
+        var reserved = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var orderIds = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(threads);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    Map<Long, Integer> lines = Map.of(COLD, 1, HOT, 1);
+                    try {
+                        counters.reserve(lines);
+                    } catch (OutOfStockException e) {
+                        rejected.incrementAndGet();
+                        continue;
+                    }
+                    reserved.incrementAndGet();
+                    if (i % 2 == 0) {
+                        confirm(counters, db, new ConfirmedOrder(orderIds.incrementAndGet(), lines, true));
+                    } else {
+                        counters.release(lines);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+
+        int attempts = threads * attemptsPerThread;
+        reporter.publishEntry("reservations", String.format("%d attempts on %d threads in %d ms (%.0f/s), %d reserved, %d rejected",
+                attempts, threads, TimeUnit.NANOSECONDS.toMillis(elapsed), attempts / (elapsed / 1e9),
+                reserved.get(), rejected.get()));
+
+        assertThat(reserved.get() + rejected.get()).isEqualTo(attempts);
+        assertThat(orderIds.get()).isEqualTo(1_000);
+        assertThat(counters.available(HOT)).isZero();
+        assertThat(counters.available(COLD)).isEqualTo(1_000_000L - 1_000);
+
+        while (db.unapplied() > 0) counters.flush();
+
+        assertThat(db.available(HOT)).isZero();
+        assertThat(db.available(COLD)).isEqualTo(1_000_000L - 1_000);
+        assertThat(db.minimumSeen).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void flushRecoversFromAConcurrentWriter() {
+        var db = new FakeInventory(Map.of(HOT, 10L));
+        var counters = counters(db);
+
+        counters.reserve(Map.of(HOT, 4));
+        confirm(counters, db, new ConfirmedOrder(1, Map.of(HOT, 4), true));
+        counters.reserve(Map.of(HOT, 3));
+
+        db.externalChange(HOT, 5);
+        counters.flush();
+
+        assertThat(db.available(HOT)).isEqualTo(15);
+        assertThat(db.unapplied()).isEqualTo(4);
+
+        counters.flush();
+
+        assertThat(db.available(HOT)).isEqualTo(11);
+        assertThat(db.unapplied()).isZero();
+        assertThat(counters.available(HOT)).isEqualTo(8);
+    }
+
+    @Test
+    void orderTheTableCannotTakeIsParkedUntilRestock() {
+        var db = new FakeInventory(Map.of(HOT, 10L, COLD, 10L));
+        var counters = counters(db);
+
+        counters.reserve(Map.of(HOT, 4));
+        confirm(counters, db, new ConfirmedOrder(1, Map.of(HOT, 4), true));
+        counters.reserve(Map.of(COLD, 2));
+        confirm(counters, db, new ConfirmedOrder(2, Map.of(COLD, 2), true));
+        counters.reserve(Map.of(HOT, 1));
+        confirm(counters, db, new ConfirmedOrder(3, Map.of(HOT, 1), true));
+
+        db.externalChange(HOT, -8);
+        counters.flush();
+        counters.flush();
+
+        assertThat(db.available(COLD)).isEqualTo(8);
+        assertThat(db.available(HOT)).isEqualTo(1);
+        assertThat(db.unapplied()).isEqualTo(4);
+
+        counters.restock(HOT, 10);
+        counters.flush();
+
+        assertThat(db.available(HOT)).isEqualTo(7);
+        assertThat(db.unapplied()).isZero();
+        assertThat(counters.available(HOT)).isEqualTo(7);
+        assertThat(counters.available(COLD)).isEqualTo(8);
+    }
+
+    @Test
+    void recoveredOrdersAreNotCountedTwice() {
+        var db = new FakeInventory(Map.of(HOT, 10L));
+        db.confirmed(new ConfirmedOrder(7, Map.of(HOT, 6), false));
+        var counters = counters(db);
+
+        counters.recover();
+        assertThat(counters.available(HOT)).isEqualTo(4);
+
+        counters.flush();
+
+        assertThat(db.available(HOT)).isEqualTo(4);
+        assertThat(counters.available(HOT)).isEqualTo(4);
+        assertThatReserveFails(counters, 5);
+    }
+
+    @Test
+    void instancesCannotBothConfirmTheLastUnit() {
+        var db = new FakeInventory(Map.of(HOT, 1L));
+        var first = counters(db);
+        var second = counters(db);
+
+        first.reserve(Map.of(HOT, 1));
+        second.reserve(Map.of(HOT, 1));
+        confirm(first, db, new ConfirmedOrder(1, Map.of(HOT, 1), true));
+
+        try {
+            confirm(second, db, new ConfirmedOrder(2, Map.of(HOT, 1), true));
+            throw new AssertionError("expected the second confirmation to be out of stock");
+        } catch (OutOfStockException e) {
+            second.release(Map.of(HOT, 1));
+        }
+
+        assertThat(db.unapplied()).isEqualTo(1);
+        assertThat(second.available(HOT)).isZero();
+
+        first.flush();
+        second.flush();
+
+        assertThat(db.available(HOT)).isZero();
+        assertThat(db.unapplied()).isZero();
+        assertThat(second.available(HOT)).isZero();
+        assertThatReserveFails(second, 1);
+    }
+
+    private static void confirm(StockCounters counters, FakeInventory db, ConfirmedOrder order) {
+        counters.confirm(order, () -> {
+            db.confirmed(order);
+            return true;
+        });
+    }
+
+    private static void assertThatReserveFails(StockCounters counters, int quantity) {
+        try {
+            counters.reserve(Map.of(HOT, quantity));
+        } catch (OutOfStockException e) {
+            return;
+        }
+        throw new AssertionError("expected " + quantity + " units to be out of stock");
+    }
+
+    private static StockCounters counters(FakeInventory db) {
+        var counters = new StockCounters(db, new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(counters, "flushBatchSize", 100);
+        return counters;
+    }
+
+    /**
+     * Inventory table with the same version and non-negative checks as the SQL, plus orders confirmed but not
+     * applied yet.
+     */
+    private static final class FakeInventory extends InventoryPersistence {
+        private final Map<Long, long[]> rows = new HashMap<>();
+        private final Map<Long, Map<Long, Integer>> pending = new HashMap<>();
+        private long minimumSeen = Long.MAX_VALUE;
+
+        private FakeInventory(Map<Long, Long> stock) {
+            super(null, null);
+            stock.forEach((id, available) -> rows.put(id, new long[]{available, 0}));
+        }
+
+        synchronized long available(long productId) {
+            return rows.get(productId)[0];
+        }
+
+        synchronized long unapplied() {
+            return pending.values().stream().flatMap(lines -> lines.values().stream()).mapToLong(Integer::longValue).sum();
+        }
+
+        synchronized void confirmed(ConfirmedOrder order) {
+            pending.put(order.orderId(), order.lines());
+        }
+
+        synchronized void externalChange(long productId, long delta) {
+            var row = rows.get(productId);
+            row[0] += delta;
+            row[1]++;
+        }
+
+        @Override
+        public synchronized StockRow load(long productId) {
+            var row = rows.get(productId);
+            if (row == null) return StockRow.MISSING;
+
+            long unapplied = pending.values().stream().mapToLong(lines -> lines.getOrDefault(productId, 0)).sum();
+            return new StockRow(row[0], row[1], unapplied);
+        }
+
+        @Override
+        public synchronized List<ConfirmedOrder> loadUnapplied() {
+            List<ConfirmedOrder> orders = new ArrayList<>();
+            pending.forEach((id, lines) -> orders.add(new ConfirmedOrder(id, lines, false)));
+            return orders;
+        }
+
+        @Override
+        synchronized boolean confirm(Map<Long, Integer> lines, BooleanSupplier markConfirmed) {
+            lines.forEach((id, quantity) -> {
+                var row = load(id);
+                if (row.available() - row.unapplied() < quantity) throw new OutOfStockException(id);
+            });
+            return markConfirmed.getAsBoolean();
+        }
+
+        @Override
+        synchronized void apply(List<ConfirmedOrder> orders, Map<Long, Long> decrements, Map<Long, Long> versions) {
+            Set<Long> stale = new HashSet<>();
+            decrements.forEach((id, delta) -> {
+                var row = rows.get(id);
+                if (row == null || row[1] != versions.get(id) || row[0] < delta) stale.add(id);
+            });
+            if (!stale.isEmpty()) throw new StaleInventoryException(stale, Set.of());
+
+            decrements.forEach((id, delta) -> {
+                var row = rows.get(id);
+                row[0] -= delta;
+                row[1]++;
+                minimumSeen = Math.min(minimumSeen, row[0]);
+            });
+            orders.forEach(order -> pending.remove(order.orderId()));
+        }
+
+        @Override
+        synchronized void restock(long productId, long quantity) {
+            externalChange(productId, quantity);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.alideweb.stuffshop.modules.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenIssuerTest {
+    private static final String SECRET = "jwt-secret-key-for-tests-that-is-longer-than-32-bytes";
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtService = new JwtService(new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiresAtInHour", 24);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 0L);
+        ReflectionTestUtils.setField(jwtService, "maxPooledMacs", 4);
+        jwtService.init();
+    }
+
+    @Test
+    void issuedTokensVerifyWithTheJjwtParser() {
+        long before = Instant.now().getEpochSecond();
+        var claims = jwtService.parseToken(jwtService.generateJwtToken("alice", UserRoles.ADMIN));
+
+        assertThat(claims.username()).isEqualTo("alice");
+        assertThat(claims.role()).isEqualTo(UserRoles.ADMIN);
+        assertThat(claims.issuedAt().getEpochSecond()).isBetween(before, before + 1);
+        assertThat(Duration.between(claims.issuedAt().truncatedTo(ChronoUnit.SECONDS), claims.expiresAt())).isEqualTo(Duration.ofHours(24));
+    }
+
+    @Test
+    void claimsMatchWhatJjwtWouldHaveWritten() throws Exception {
+        String username = "q\"uo\\te ø ✓ 😀\n";
+        String token = jwtService.generateJwtToken(username, UserRoles.USER);
+        var claims = jwtService.parseToken(token);
+
+        String expected = Jwts.builder()
+                .setClaims(Map.of("username", username, "role", UserRoles.USER))
+                .setSubject(username)
+                .setIssuedAt(Date.from(claims.issuedAt()))
+                .setExpiration(Date.from(claims.expiresAt()))
+                .signWith(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"), SignatureAlgorithm.HS256)
+                .compact();
+
+        var payload = segment(token, 1);
+        var expectedPayload = segment(expected, 1);
+        assertThat(payload.remove("iat")).isEqualTo(claims.issuedAt().toEpochMilli() / 1000.0);
+        assertThat(expectedPayload.remove("iat")).isEqualTo((int) claims.issuedAt().getEpochSecond());
+
+        assertThat(segment(token, 0)).isEqualTo(segment(expected, 0));
+        assertThat(payload).isEqualTo(expectedPayload);
+        assertThat(claims.username()).isEqualTo(username);
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        String token = jwtService.generateJwtToken("alice", UserRoles.USER);
+        String forged = jwtService.generateJwtToken("mallory", UserRoles.ADMIN);
+        String spliced = token.substring(0, token.indexOf('.') + 1) + segmentText(forged, 1) + token.substring(token.lastIndexOf('.'));
+
+        assertThatThrownBy(() -> jwtService.parseToken(spliced)).isInstanceOf(RuntimeException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> segment(String token, int index) throws Exception {
+        return new ObjectMapper().readValue(Base64.getUrlDecoder().decode(segmentText(token, index)), Map.class);
+    }
+
+    private static String segmentText(String token, int index) {
+        return token.split("\\.")[index];
+    }
+}
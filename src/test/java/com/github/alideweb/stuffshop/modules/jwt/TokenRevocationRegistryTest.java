@@ -0,0 +1,53 @@
+package com.github.alideweb.stuffshop.modules.jwt;
+
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.modules.user.enums.UserRoles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationRegistryTest {
+    private static final Instant REVOKED_AT = Instant.parse("2026-01-01T10:00:00.500Z");
+
+    private final TokenRevocationRegistry registry = new TokenRevocationRegistry(null);
+
+    @Test
+    void tokensIssuedUpToTheRevocationAreRevoked() {
+        registry.revoke("alice", REVOKED_AT);
+
+        assertThat(registry.isRevoked(issuedAt("alice", "2026-01-01T10:00:00.300Z"))).isTrue();
+        assertThat(registry.isRevoked(issuedAt("alice", "2026-01-01T10:00:00.500Z"))).isTrue();
+        assertThat(registry.isRevoked(issuedAt("bob", "2026-01-01T10:00:00.300Z"))).isFalse();
+    }
+
+    @Test
+    void tokenIssuedLaterInTheSameSecondIsAccepted() {
+        registry.revoke("alice", REVOKED_AT);
+
+        assertThat(registry.isRevoked(issuedAt("alice", "2026-01-01T10:00:00.700Z"))).isFalse();
+    }
+
+    @Test
+    void issuedTokensKeepMillisecondsThroughParsing() throws Exception {
+        var jwtService = new JwtService(new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(jwtService, "secretKey", "jwt-secret-key-for-tests-that-is-longer-than-32-bytes");
+        ReflectionTestUtils.setField(jwtService, "expiresAtInHour", 24);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 0L);
+        ReflectionTestUtils.setField(jwtService, "maxPooledMacs", 4);
+        jwtService.init();
+
+        registry.revoke("alice", Instant.now());
+        Thread.sleep(2);
+
+        var claims = jwtService.parseToken(jwtService.generateJwtToken("alice", UserRoles.USER));
+        assertThat(registry.isRevoked(claims)).isFalse();
+    }
+
+    private static JwtClaims issuedAt(String username, String issuedAt) {
+        return new JwtClaims(username, UserRoles.USER, Instant.parse(issuedAt), Instant.parse(issuedAt).plusSeconds(3600));
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.alideweb.stuffshop.modules.password;
+
+import com.github.alideweb.stuffshop.common.metrics.PipelineMetrics;
+import com.github.alideweb.stuffshop.exceptions.HashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Set<String> hashingThreads = ConcurrentHashMap.newKeySet();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void fullQueueMakesTheImportWaitInsteadOfHashingOnItsOwnThread() throws Exception {
+        service = service(5_000);
+        fillPool();
+
+        new Thread(() -> {
+            sleep(100);
+            release.countDown();
+        }).start();
+
+        assertThat(service.encodeAll(List.of("a", "b"))).containsExactly("hashed:a", "hashed:b");
+        assertThat(hashingThreads).allMatch(name -> name.startsWith("password-hash-"));
+    }
+
+    @Test
+    void poolThatStaysFullFailsTheBatchAfterTheTimeout() throws Exception {
+        service = service(100);
+        fillPool();
+
+        assertThatThrownBy(() -> service.encodeAll(List.of("a"))).isInstanceOf(HashingUnavailableException.class);
+        assertThat(hashingThreads).noneMatch(name -> name.equals(Thread.currentThread().getName()));
+    }
+
+    private PasswordHashingService service(long timeoutMillis) {
+        var service = new PasswordHashingService(new BlockingEncoder(), new PipelineMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "threads", 1);
+        ReflectionTestUtils.setField(service, "queueLimit", 1);
+        ReflectionTestUtils.setField(service, "timeoutMillis", timeoutMillis);
+        service.init();
+        return service;
+    }
+
+    /**
+     * Occupies the single hashing thread and the single queue slot until {@link #release} opens.
+     */
+    private void fillPool() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            var thread = new Thread(() -> {
+                try {
+                    service.encode("blocker");
+                } catch (HashingUnavailableException ignored) {
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.getQueueDepth() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class BlockingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashingThreads.add(Thread.currentThread().getName());
+            // Like BCrypt, keeps going when the waiting caller gives up and interrupts it
+            while (rawPassword.toString().equals("blocker") && release.getCount() > 0) {
+                try {
+                    release.await(5, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+    }
+}
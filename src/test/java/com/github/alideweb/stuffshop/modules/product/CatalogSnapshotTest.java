@@ -0,0 +1,66 @@
+package com.github.alideweb.stuffshop.modules.product;
+
+import com.github.alideweb.stuffshop.modules.product.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+    private static ProductDto product(long id, String category, String price) {
+        return new ProductDto(id, "product " + id, null, category, new BigDecimal(price));
+    }
+
+    @Test
+    void keysetPagesByPriceVisitEveryProductOnce() {
+        var snapshot = CatalogSnapshot.of(List.of(
+                product(1, "books", "10.00"),
+                product(2, "books", "5.00"),
+                product(3, "games", "10.00"),
+                product(4, "books", "10.00"),
+                product(5, "games", "1.00")
+        ));
+
+        List<Long> seen = new ArrayList<>();
+        ProductDto after = null;
+        List<ProductDto> page;
+        do {
+            page = snapshot.page(null, true, after, null, null, 2);
+            page.stream().limit(2).forEach(p -> seen.add(p.id()));
+            after = page.size() > 2 ? page.get(1) : null;
+        } while (after != null);
+
+        assertThat(seen).containsExactly(5L, 2L, 1L, 3L, 4L);
+    }
+
+    @Test
+    void incrementalChangesMatchAFullRebuild() {
+        var snapshot = CatalogSnapshot.of(List.of(
+                product(1, "books", "10.00"),
+                product(2, "books", "5.00"),
+                product(3, "games", "7.00")
+        ));
+
+        var changed = snapshot
+                .with(product(2, "games", "12.00"))
+                .with(product(4, "books", "3.00"))
+                .without(1);
+        var rebuilt = CatalogSnapshot.of(List.of(
+                product(2, "games", "12.00"),
+                product(3, "games", "7.00"),
+                product(4, "books", "3.00")
+        ));
+
+        assertThat(changed.page("games", true, null, null, null, 10))
+                .isEqualTo(rebuilt.page("games", true, null, null, null, 10))
+                .extracting(ProductDto::id).containsExactly(3L, 2L);
+        assertThat(changed.page("books", false, null, null, null, 10))
+                .extracting(ProductDto::id).containsExactly(4L);
+        assertThat(changed.page(null, true, null, new BigDecimal("5.00"), new BigDecimal("10.00"), 10))
+                .extracting(ProductDto::id).containsExactly(3L);
+        assertThat(changed.find(1)).isEmpty();
+    }
+}
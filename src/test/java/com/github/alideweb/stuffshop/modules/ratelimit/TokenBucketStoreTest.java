@@ -0,0 +1,33 @@
+package com.github.alideweb.stuffshop.modules.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketStoreTest {
+    // Equal hash codes, so all four keys land in the same stripe
+    private static final String[] KEYS = {"AaAa", "BBBB", "AaBB", "BBAa"};
+
+    @Test
+    void keysBeyondTheStripeLimitGetTheirOwnBuckets() {
+        var store = new TokenBucketStore(2, 2, 1, 1);
+
+        for (String key : KEYS) {
+            assertThat(store.tryAcquire(key)).isZero();
+        }
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void fullStripeEvictsTheBucketClosestToFull() throws InterruptedException {
+        var store = new TokenBucketStore(2, 2, 1, 1);
+
+        assertThat(store.tryAcquire(KEYS[0])).isZero();
+        Thread.sleep(5);
+        assertThat(store.tryAcquire(KEYS[1])).isZero();
+        assertThat(store.tryAcquire(KEYS[2])).isZero();
+
+        assertThat(store.tryAcquire(KEYS[1])).isPositive();
+        assertThat(store.tryAcquire(KEYS[2])).isPositive();
+    }
+}
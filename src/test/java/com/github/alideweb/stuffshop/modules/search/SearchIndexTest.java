@@ -0,0 +1,81 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex(null, null);
+        ReflectionTestUtils.setField(index, "maxSegments", 4);
+        ReflectionTestUtils.setField(index, "maxPrefixScan", 100);
+    }
+
+    @Test
+    void ranksTheMostRelevantProductFirst() {
+        index.index(1, "Red running shoes", "Lightweight shoes for road running");
+        index.index(2, "Blue rain jacket", "Keeps you dry while running");
+        index.index(3, "Coffee mug", "Ceramic mug");
+
+        assertThat(index.search("running shoes", 10))
+                .extracting(SearchHit::productId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void updatesAndRemovalsSurviveSegmentMerges() {
+        for (long id = 1; id <= 20; id++) {
+            index.index(id, "Plain product " + id, null);
+        }
+        index.index(7, "Espresso machine", null);
+        index.remove(8);
+
+        assertThat(index.search("espresso", 10)).extracting(SearchHit::productId).containsExactly(7L);
+        assertThat(index.search("plain", 100)).hasSize(18);
+        assertThat(index.suggest("espr", 5)).containsExactly("espresso");
+    }
+
+    @Test
+    void suggestionsIgnoreRemovedProducts() {
+        index.index(1, "Espresso cup", null);
+        index.index(2, "Espresso beans", null);
+        index.index(3, "Espresso grinder", null);
+        index.index(4, "Espadrille", null);
+        index.index(5, "Espadrille", null);
+        index.index(6, "Esparto mat", null);
+        index.remove(1);
+        index.remove(2);
+        index.remove(6);
+
+        assertThat(index.suggest("esp", 5)).containsExactly("espadrille", "espresso");
+    }
+
+    @Test
+    void rebuildPicksUpProductsWrittenByOtherInstances() {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:search-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table products (id bigint, name varchar(255), description varchar(255), active boolean)");
+        jdbcTemplate.update("insert into products values (1, 'Espresso machine', null, true)");
+
+        var index = new SearchIndex(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(index, "maxSegments", 4);
+        ReflectionTestUtils.setField(index, "maxPrefixScan", 100);
+        index.build();
+
+        jdbcTemplate.update("insert into products values (2, 'Espresso cups', null, true)");
+        jdbcTemplate.update("update products set active = false where id = 1");
+        index.rebuild();
+
+        assertThat(index.search("espresso", 10)).extracting(SearchHit::productId).containsExactly(2L);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.alideweb.stuffshop.modules.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchSegmentTest {
+    @Test
+    void deletionOnlyLowersTheFrequenciesOfTheDeletedDocumentsTerms() {
+        var builder = new SearchSegment.Builder();
+        builder.addDocument(1, List.of("red", "running", "shoes", "shoes"));
+        builder.addDocument(2, List.of("red", "rain", "hat"));
+        builder.addDocument(3, List.of("blue", "hat"));
+        var segment = builder.build();
+
+        segment.delete(2);
+        segment.delete(2);
+
+        assertThat(segment.docFreq("red")).isEqualTo(1);
+        assertThat(segment.docFreq("hat")).isEqualTo(1);
+        assertThat(segment.docFreq("rain")).isZero();
+        assertThat(segment.docFreq("shoes")).isEqualTo(1);
+        assertThat(segment.docFreq("blue")).isEqualTo(1);
+        assertThat(segment.liveDocs()).isEqualTo(2);
+
+        Map<String, Integer> suggestions = new HashMap<>();
+        segment.collectPrefix("r", suggestions, 10);
+        assertThat(suggestions).containsOnly(Map.entry("red", 1), Map.entry("running", 1));
+    }
+}